@@ -1,11 +1,14 @@
 package com.ecommerce.product;
 
+import com.ecommerce.product.config.ApplicationProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableConfigurationProperties(ApplicationProperties.class)
 public class ProductServiceApp {
 
     public static void main(String[] args) {
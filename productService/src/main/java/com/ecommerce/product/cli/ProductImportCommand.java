@@ -0,0 +1,86 @@
+package com.ecommerce.product.cli;
+
+import com.ecommerce.product.service.ProductImportService;
+import com.ecommerce.product.service.dto.ProductImportReportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports product catalogs given on the command line, then exits:
+ * <pre>
+ * java -jar productService.jar --spring.profiles.active=dev,import --import=catalog.ndjson [--import=more.csv.gz] [--import-format=csv]
+ * </pre>
+ * The {@code import} profile is added to the environment profile ({@code dev} or {@code prod}) rather than replacing
+ * it, since the config server serves the MongoDB connection per environment. It starts no web server, does not
+ * register with Eureka and runs no scheduled job. The command runs right after the collection indexes and the
+ * inventory are set up, and exits before the in-memory indexes are built. The format is inferred from the file
+ * extension unless {@code --import-format} is given. The process exits with status 1 if any row was rejected, 2 if no
+ * file was given.
+ */
+@Component
+@Profile(ProductImportCommand.PROFILE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ProductImportCommand implements ApplicationRunner {
+
+    public static final String PROFILE = "import";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportCommand.class);
+
+    private final ProductImportService productImportService;
+
+    private final ApplicationContext applicationContext;
+
+    public ProductImportCommand(ProductImportService productImportService, ApplicationContext applicationContext) {
+        this.productImportService = productImportService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> files = args.getOptionValues("import");
+        if (files == null || files.isEmpty()) {
+            LOG.error("No catalog to import, pass one or more --import=<file>");
+            System.exit(SpringApplication.exit(applicationContext, () -> 2));
+            return;
+        }
+        List<String> formats = args.getOptionValues("import-format");
+
+        long rejected = 0;
+        for (String file : files) {
+            ProductImportService.Format format = formats == null || formats.isEmpty()
+                    ? ProductImportService.Format.fromFileName(file)
+                    : ProductImportService.Format.valueOf(formats.get(0).toUpperCase(Locale.ROOT));
+            try (InputStream in = open(Path.of(file))) {
+                ProductImportReportDTO report = productImportService.importProducts(in, format);
+                LOG.info("Imported {} : {}", file, report);
+                report.getErrors().forEach(error -> LOG.warn("{} : {}", file, error));
+                rejected += report.getRejected();
+            }
+        }
+
+        int exitCode = rejected == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16);
+        return path.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
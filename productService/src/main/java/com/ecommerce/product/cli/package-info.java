@@ -0,0 +1,4 @@
+/**
+ * Command line entry points.
+ */
+package com.ecommerce.product.cli;
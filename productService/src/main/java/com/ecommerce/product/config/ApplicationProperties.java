@@ -0,0 +1,645 @@
+package com.ecommerce.product.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Properties specific to Product Service.
+ * <p>
+ * Properties are configured in the {@code application.yaml} file.
+ */
+@ConfigurationProperties(prefix = "application")
+public class ApplicationProperties {
+
+    private final ProductCache productCache = new ProductCache();
+
+    private final Recommendation recommendation = new Recommendation();
+
+    private final Trending trending = new Trending();
+
+    private final ActivityBuffer activityBuffer = new ActivityBuffer();
+
+    private final ActivityFeed activityFeed = new ActivityFeed();
+
+    private final ActivityRetention activityRetention = new ActivityRetention();
+
+    private final ProductImport productImport = new ProductImport();
+
+    private final Suggest suggest = new Suggest();
+
+    private final FuzzySearch fuzzySearch = new FuzzySearch();
+
+    private final CatalogChanges catalogChanges = new CatalogChanges();
+
+    private final CatalogSnapshot catalogSnapshot = new CatalogSnapshot();
+
+    private final Similarity similarity = new Similarity();
+
+    private final Engagement engagement = new Engagement();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    public ProductCache getProductCache() {
+        return productCache;
+    }
+
+    public Recommendation getRecommendation() {
+        return recommendation;
+    }
+
+    public Trending getTrending() {
+        return trending;
+    }
+
+    public ActivityBuffer getActivityBuffer() {
+        return activityBuffer;
+    }
+
+    public ActivityFeed getActivityFeed() {
+        return activityFeed;
+    }
+
+    public ActivityRetention getActivityRetention() {
+        return activityRetention;
+    }
+
+    public ProductImport getProductImport() {
+        return productImport;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public FuzzySearch getFuzzySearch() {
+        return fuzzySearch;
+    }
+
+    public CatalogChanges getCatalogChanges() {
+        return catalogChanges;
+    }
+
+    public CatalogSnapshot getCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    public Similarity getSimilarity() {
+        return similarity;
+    }
+
+    public Engagement getEngagement() {
+        return engagement;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public static class ProductCache {
+
+        private long maximumSize = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        private int cachedPages = 5;
+
+        private long maximumPages = 200;
+
+        private boolean changeStreamEnabled = false;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public int getCachedPages() {
+            return cachedPages;
+        }
+
+        public void setCachedPages(int cachedPages) {
+            this.cachedPages = cachedPages;
+        }
+
+        public long getMaximumPages() {
+            return maximumPages;
+        }
+
+        public void setMaximumPages(long maximumPages) {
+            this.maximumPages = maximumPages;
+        }
+
+        public boolean isChangeStreamEnabled() {
+            return changeStreamEnabled;
+        }
+
+        public void setChangeStreamEnabled(boolean changeStreamEnabled) {
+            this.changeStreamEnabled = changeStreamEnabled;
+        }
+    }
+
+    public static class Recommendation {
+
+        private int size = 5;
+
+        private int maxUserHistory = 200;
+
+        private long cacheSize = 100_000;
+
+        private Duration cacheTimeToLive = Duration.ofMinutes(30);
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public int getMaxUserHistory() {
+            return maxUserHistory;
+        }
+
+        public void setMaxUserHistory(int maxUserHistory) {
+            this.maxUserHistory = maxUserHistory;
+        }
+
+        public long getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(long cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public Duration getCacheTimeToLive() {
+            return cacheTimeToLive;
+        }
+
+        public void setCacheTimeToLive(Duration cacheTimeToLive) {
+            this.cacheTimeToLive = cacheTimeToLive;
+        }
+    }
+
+    public static class Trending {
+
+        private Duration halfLife = Duration.ofHours(6);
+
+        private int topK = 50;
+
+        private Map<String, Double> actionWeights = new HashMap<>(Map.of("view", 1.0, "add_to_cart", 3.0, "purchase", 5.0));
+
+        public Duration getHalfLife() {
+            return halfLife;
+        }
+
+        public void setHalfLife(Duration halfLife) {
+            this.halfLife = halfLife;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public Map<String, Double> getActionWeights() {
+            return actionWeights;
+        }
+
+        public void setActionWeights(Map<String, Double> actionWeights) {
+            this.actionWeights = actionWeights;
+        }
+    }
+
+    public static class ActivityBuffer {
+
+        private boolean enabled = true;
+
+        private int capacity = 10_000;
+
+        private int batchSize = 500;
+
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    public static class ActivityFeed {
+
+        private boolean changeStreamEnabled = false;
+
+        public boolean isChangeStreamEnabled() {
+            return changeStreamEnabled;
+        }
+
+        public void setChangeStreamEnabled(boolean changeStreamEnabled) {
+            this.changeStreamEnabled = changeStreamEnabled;
+        }
+    }
+
+    public static class ActivityRetention {
+
+        private boolean enabled = true;
+
+        private Duration retention = Duration.ofDays(90);
+
+        private int batchSize = 1000;
+
+        private Duration lockLease = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLockLease() {
+            return lockLease;
+        }
+
+        public void setLockLease(Duration lockLease) {
+            this.lockLease = lockLease;
+        }
+    }
+
+    public static class ProductImport {
+
+        private int batchSize = 1000;
+
+        private int maxReportedErrors = 100;
+
+        private boolean publishEvents = true;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        public boolean isPublishEvents() {
+            return publishEvents;
+        }
+
+        public void setPublishEvents(boolean publishEvents) {
+            this.publishEvents = publishEvents;
+        }
+    }
+
+    public static class Suggest {
+
+        private int topK = 10;
+
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class FuzzySearch {
+
+        private int maxEditDistance = 2;
+
+        private int prefixLength = 7;
+
+        private int maxSpellings = 5;
+
+        public int getMaxEditDistance() {
+            return maxEditDistance;
+        }
+
+        public void setMaxEditDistance(int maxEditDistance) {
+            this.maxEditDistance = maxEditDistance;
+        }
+
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        public void setPrefixLength(int prefixLength) {
+            this.prefixLength = prefixLength;
+        }
+
+        public int getMaxSpellings() {
+            return maxSpellings;
+        }
+
+        public void setMaxSpellings(int maxSpellings) {
+            this.maxSpellings = maxSpellings;
+        }
+    }
+
+    public static class CatalogChanges {
+
+        private Duration tombstoneRetention = Duration.ofDays(30);
+
+        private Duration safetyLag = Duration.ofSeconds(5);
+
+        public Duration getTombstoneRetention() {
+            return tombstoneRetention;
+        }
+
+        public void setTombstoneRetention(Duration tombstoneRetention) {
+            this.tombstoneRetention = tombstoneRetention;
+        }
+
+        public Duration getSafetyLag() {
+            return safetyLag;
+        }
+
+        public void setSafetyLag(Duration safetyLag) {
+            this.safetyLag = safetyLag;
+        }
+    }
+
+    public static class CatalogSnapshot {
+
+        private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "product-snapshots");
+
+        private int retained = 2;
+
+        private Duration minInterval = Duration.ofMinutes(10);
+
+        private Duration lockLease = Duration.ofMinutes(30);
+
+        private boolean onDemand;
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public int getRetained() {
+            return retained;
+        }
+
+        public void setRetained(int retained) {
+            this.retained = retained;
+        }
+
+        public Duration getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public Duration getLockLease() {
+            return lockLease;
+        }
+
+        public void setLockLease(Duration lockLease) {
+            this.lockLease = lockLease;
+        }
+
+        public boolean isOnDemand() {
+            return onDemand;
+        }
+
+        public void setOnDemand(boolean onDemand) {
+            this.onDemand = onDemand;
+        }
+    }
+
+    public static class Similarity {
+
+        private int topK = 10;
+
+        private int maxTerms = 32;
+
+        private double maxDocumentFrequency = 0.05;
+
+        private int parallelism;
+
+        private Duration refreshInterval = Duration.ofMinutes(1);
+
+        private Duration rebuildInterval = Duration.ofHours(6);
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getMaxTerms() {
+            return maxTerms;
+        }
+
+        public void setMaxTerms(int maxTerms) {
+            this.maxTerms = maxTerms;
+        }
+
+        public double getMaxDocumentFrequency() {
+            return maxDocumentFrequency;
+        }
+
+        public void setMaxDocumentFrequency(double maxDocumentFrequency) {
+            this.maxDocumentFrequency = maxDocumentFrequency;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
+
+    public static class Engagement {
+
+        private Duration window = Duration.ofHours(1);
+
+        private List<String> actions = new ArrayList<>(List.of("view", "add_to_cart", "purchase"));
+
+        private int gaugedProducts = 10;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public List<String> getActions() {
+            return actions;
+        }
+
+        public void setActions(List<String> actions) {
+            this.actions = actions;
+        }
+
+        public int getGaugedProducts() {
+            return gaugedProducts;
+        }
+
+        public void setGaugedProducts(int gaugedProducts) {
+            this.gaugedProducts = gaugedProducts;
+        }
+    }
+
+    public static class WarmUp {
+
+        private boolean enabled = true;
+
+        private int products = 1000;
+
+        private int users = 100;
+
+        private int searches = 200;
+
+        private Duration timeout = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getProducts() {
+            return products;
+        }
+
+        public void setProducts(int products) {
+            this.products = products;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getSearches() {
+            return searches;
+        }
+
+        public void setSearches(int searches) {
+            this.searches = searches;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
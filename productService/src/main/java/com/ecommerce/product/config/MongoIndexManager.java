@@ -0,0 +1,141 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.domain.ProductTombstone;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.domain.UserActivityDailyRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ensures the indexes backing the repository queries exist before anything else reads the collections.
+ * <p>
+ * Indexes are declared here rather than with {@code @Indexed} so they are created regardless of
+ * {@code spring.data.mongodb.auto-index-creation}. Existing indexes that conflict with a declaration, or that are
+ * not declared at all, are logged as drift and left untouched. The one exception is an index declared unique that
+ * exists without the constraint: it is rebuilt unique, or restored as it was if the collection holds duplicates.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoIndexManager implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    private final Map<Class<?>, List<Index>> indexes = new LinkedHashMap<>();
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexManager(MongoTemplate mongoTemplate, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        indexes.put(Product.class, List.of(
+                // searchProducts price range filter
+                new Index().on("price", Sort.Direction.ASC).named("price"),
+                // catalog changes, in token order
+                new Index().on("last_modified_date", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("last_modified_date_id")
+        ));
+        indexes.put(ProductTombstone.class, List.of(
+                // catalog changes; tombstones older than any servable token are dropped by MongoDB
+                new Index().on("deleted_date", Sort.Direction.ASC).named("deleted_date")
+                        .expire(applicationProperties.getCatalogChanges().getTombstoneRetention())
+        ));
+        indexes.put(UserActivity.class, List.of(
+                // findByUserId1AndProductIdAndAction, findByUserId1 and the bulk upsert key, unique so concurrent
+                // upserts from several replicas cannot both insert
+                new Index().on("user_id_1", Sort.Direction.ASC).on("product_id", Sort.Direction.ASC).on("action", Sort.Direction.ASC)
+                        .named("user_id_1_product_id_action").unique(),
+                // findByProductId
+                new Index().on("product_id", Sort.Direction.ASC).named("product_id"),
+                // trending bootstrap and retention rollup
+                new Index().on("timestamp", Sort.Direction.ASC).named("timestamp")
+        ));
+        indexes.put(UserActivityDailyRollup.class, List.of(
+                new Index().on("product_id", Sort.Direction.ASC).on("day", Sort.Direction.ASC).named("product_id_day")
+        ));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        indexes.forEach(this::ensureIndexes);
+    }
+
+    private void ensureIndexes(Class<?> entityClass, List<Index> indexes) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+        for (Index index : indexes) {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (DataAccessException e) {
+                if (!makeUnique(indexOps, index)) {
+                    LOG.warn("Index drift on {} : could not ensure {} {} : {}", collection, index.getIndexOptions().get("name"), index.getIndexKeys().toJson(), e.getMessage());
+                }
+            }
+        }
+
+        try {
+            Set<String> declared = indexes.stream().map(index -> (String) index.getIndexOptions().get("name")).collect(Collectors.toSet());
+            List<String> undeclared = indexOps.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .filter(name -> !"_id_".equals(name) && !declared.contains(name))
+                    .toList();
+            if (!undeclared.isEmpty()) {
+                LOG.info("Index drift on {} : undeclared indexes {}", collection, undeclared);
+            }
+        } catch (DataAccessException e) {
+            LOG.warn("Could not list indexes of {} : {}", collection, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild an existing index as unique when it is declared unique.
+     *
+     * @return whether the index is now unique.
+     */
+    private boolean makeUnique(IndexOperations indexOps, Index index) {
+        String name = (String) index.getIndexOptions().get("name");
+        if (!Boolean.TRUE.equals(index.getIndexOptions().get("unique"))) {
+            return false;
+        }
+        try {
+            IndexInfo existing = indexOps.getIndexInfo().stream().filter(info -> info.getName().equals(name)).findFirst().orElse(null);
+            if (existing == null || existing.isUnique()) {
+                return false;
+            }
+            indexOps.dropIndex(name);
+        } catch (DataAccessException e) {
+            return false;
+        }
+        try {
+            indexOps.ensureIndex(index);
+            LOG.info("Rebuilt index {} as unique", name);
+            return true;
+        } catch (DataAccessException e) {
+            LOG.warn("Could not make index {} unique, the collection holds duplicates; restoring it : {}", name, e.getMessage());
+            Index restored = new Index().named(name);
+            index.getIndexKeys().forEach((key, direction) ->
+                    restored.on(key, ((Number) direction).intValue() < 0 ? Sort.Direction.DESC : Sort.Direction.ASC));
+            try {
+                indexOps.ensureIndex(restored);
+            } catch (DataAccessException restoreFailure) {
+                LOG.warn("Could not restore index {} : {}", name, restoreFailure.getMessage());
+            }
+            return false;
+        }
+    }
+}
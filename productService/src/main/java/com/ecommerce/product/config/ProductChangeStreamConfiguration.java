@@ -0,0 +1,115 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+import java.time.Duration;
+
+/**
+ * Tails the product collection change stream so that caches and in-memory indexes on this node
+ * also see writes made by other replicas. Requires MongoDB to run as a replica set.
+ * <p>
+ * The stream also carries the writes of this node, which already published their {@link ProductChangedEvent}; those
+ * echoes are recognised by product id and modification date and dropped.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.product-cache", name = "change-stream-enabled", havingValue = "true")
+public class ProductChangeStreamConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductChangeStreamConfiguration.class);
+
+    @Bean
+    public LocalProductChanges localProductChanges() {
+        return new LocalProductChanges();
+    }
+
+    /**
+     * The container does not start on its own ({@code isAutoStartup()} is {@code false}).
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MessageListenerContainer productChangeStreamContainer(
+            MongoTemplate mongoTemplate,
+            ApplicationEventPublisher eventPublisher,
+            LocalProductChanges localProductChanges
+    ) {
+        MessageListenerContainer container = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<Product> request = ChangeStreamRequest.builder((Message<ChangeStreamDocument<Document>, Product> message) -> {
+                    ChangeStreamDocument<Document> raw = message.getRaw();
+                    if (raw == null || raw.getDocumentKey() == null) {
+                        return;
+                    }
+                    String productId = toId(raw.getDocumentKey().get("_id"));
+                    Product product = raw.getOperationType() == OperationType.DELETE ? null : message.getBody();
+                    if (localProductChanges.isEcho(productId, product)) {
+                        return;
+                    }
+                    LOG.debug("Received product change from change stream : {} {}", raw.getOperationType(), productId);
+                    eventPublisher.publishEvent(ProductChangedEvent.remote(productId, product));
+                })
+                .collection("product")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Product.class);
+        return container;
+    }
+
+    private static String toId(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    /**
+     * The changes this node made recently, so their change stream events are not published a second time.
+     */
+    public static class LocalProductChanges {
+
+        private static final long DELETED = Long.MIN_VALUE;
+
+        private final Cache<String, Long> stamps = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+
+        @EventListener
+        public void onProductChanged(ProductChangedEvent event) {
+            Long stamp = stampOf(event.getProduct());
+            if (!event.isRemote() && stamp != null) {
+                stamps.put(event.getProductId(), stamp);
+            }
+        }
+
+        /**
+         * @return whether the change is the one this node last made to the product; it is then forgotten.
+         */
+        boolean isEcho(String productId, Product product) {
+            Long stamp = stampOf(product);
+            return stamp != null && stamps.asMap().remove(productId, stamp);
+        }
+
+        private static Long stampOf(Product product) {
+            if (product == null) {
+                return DELETED;
+            }
+            // writes without a modification date cannot be told apart, they are always published
+            return product.getLastModifiedDate() == null ? null : product.getLastModifiedDate().toEpochMilli();
+        }
+    }
+}
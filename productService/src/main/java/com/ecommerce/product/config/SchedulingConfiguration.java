@@ -0,0 +1,11 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.cli.ProductImportCommand;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@Profile("!" + ProductImportCommand.PROFILE)
+public class SchedulingConfiguration {}
@@ -0,0 +1,114 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Tails the user activity collection change stream so that the trending, engagement and co-occurrence indexes on this
+ * node also count the activity recorded by other replicas. Without it each replica only sees the share of the traffic
+ * the load balancer sends to it. Requires MongoDB to run as a replica set.
+ * <p>
+ * The stream also carries the writes of this node, which already published their {@link UserActivityRecordedEvent};
+ * those echoes are recognised by user, product, action and timestamp and dropped. Deletes, such as the rollup of old
+ * activities, are not activity and are ignored.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.activity-feed", name = "change-stream-enabled", havingValue = "true")
+public class UserActivityChangeStreamConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserActivityChangeStreamConfiguration.class);
+
+    private static final Set<OperationType> WRITES = Set.of(OperationType.INSERT, OperationType.UPDATE, OperationType.REPLACE);
+
+    @Bean
+    public LocalUserActivities localUserActivities() {
+        return new LocalUserActivities();
+    }
+
+    /**
+     * The container does not start on its own ({@code isAutoStartup()} is {@code false}).
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MessageListenerContainer userActivityChangeStreamContainer(
+            MongoTemplate mongoTemplate,
+            ApplicationEventPublisher eventPublisher,
+            LocalUserActivities localUserActivities
+    ) {
+        MessageListenerContainer container = new DefaultMessageListenerContainer(mongoTemplate);
+        ChangeStreamRequest<UserActivity> request = ChangeStreamRequest.builder((Message<ChangeStreamDocument<Document>, UserActivity> message) -> {
+                    ChangeStreamDocument<Document> raw = message.getRaw();
+                    UserActivity activity = message.getBody();
+                    if (raw == null || !WRITES.contains(raw.getOperationType()) || activity == null || activity.getTimestamp() == null) {
+                        return;
+                    }
+                    if (localUserActivities.isEcho(activity.getUserId1(), activity.getProductId(), activity.getAction(), activity.getTimestamp())) {
+                        return;
+                    }
+                    LOG.debug("Received user activity from change stream : {}", activity);
+                    eventPublisher.publishEvent(UserActivityRecordedEvent.remote(
+                            activity.getUserId1(),
+                            activity.getProductId(),
+                            activity.getAction(),
+                            activity.getTimestamp()
+                    ));
+                })
+                .collection("user_activity")
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, UserActivity.class);
+        return container;
+    }
+
+    /**
+     * The activities this node recorded recently, so their change stream events are not published a second time.
+     */
+    public static class LocalUserActivities {
+
+        // keyed by timestamp too: a batch may record the same user, product and action several times
+        private final Cache<String, Boolean> recorded = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .build();
+
+        @EventListener
+        public void onActivityRecorded(UserActivityRecordedEvent event) {
+            if (!event.isRemote() && event.getTimestamp() != null) {
+                recorded.put(keyOf(event.getUserId(), event.getProductId(), event.getAction(), event.getTimestamp()), Boolean.TRUE);
+            }
+        }
+
+        /**
+         * @return whether the activity is one this node recorded; it is then forgotten.
+         */
+        boolean isEcho(String userId, String productId, String action, Instant timestamp) {
+            return recorded.asMap().remove(keyOf(userId, productId, action, timestamp)) != null;
+        }
+
+        private static String keyOf(String userId, String productId, String action, Instant timestamp) {
+            // the database keeps milliseconds
+            return userId + '\u0000' + productId + '\u0000' + action + '\u0000' + timestamp.toEpochMilli();
+        }
+    }
+}
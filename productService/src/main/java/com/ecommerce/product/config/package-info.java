@@ -0,0 +1,4 @@
+/**
+ * Application configuration.
+ */
+package com.ecommerce.product.config;
@@ -0,0 +1,71 @@
+package com.ecommerce.product.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The stock of a {@link Product}, kept apart from the catalog document so that sales and restocks only touch a few
+ * bytes instead of rewriting the product.
+ */
+@Document(collection = "inventory")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class Inventory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The id of the product.
+     */
+    @Id
+    private String id;
+
+    @Field("stock")
+    private Integer stock;
+
+    @Field("last_modified_date")
+    private Instant lastModifiedDate;
+
+    public Inventory() {}
+
+    public Inventory(String id, Integer stock) {
+        this.id = id;
+        this.stock = stock;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Integer getStock() {
+        return this.stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Instant getLastModifiedDate() {
+        return this.lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "Inventory{" +
+            "id=" + getId() +
+            ", stock=" + getStock() +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
+            "}";
+    }
+}
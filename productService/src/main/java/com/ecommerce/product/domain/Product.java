@@ -4,6 +4,7 @@ import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.mapping.FieldType;
@@ -13,7 +14,7 @@ import org.springframework.data.mongodb.core.mapping.FieldType;
  */
 @Document(collection = "product")
 @SuppressWarnings("common-java:DuplicatedBlocks")
-public class Product implements Serializable {
+public class Product extends AbstractAuditingEntity<String> implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
@@ -38,8 +39,11 @@ public class Product implements Serializable {
     @Field("brand")
     private String brand;
 
+    /**
+     * Kept in the {@link Inventory}, never in the product document: set on writes and on the DTOs that show it.
+     */
     @NotNull
-    @Field("stock")
+    @Transient
     private Integer stock;
 
     @Field("image_url")
@@ -48,8 +52,16 @@ public class Product implements Serializable {
     @Field("tags")
     private String tags;
 
+    /**
+     * Incremented by every partial update, so a client can make its update conditional on the version it read.
+     * Deliberately not a Spring Data {@code @Version}: full updates replace the document with what the client sent.
+     */
+    @Field("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
+    @Override
     public String getId() {
         return this.id;
     }
@@ -167,6 +179,19 @@ public class Product implements Serializable {
         this.tags = tags;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Product version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -199,6 +224,7 @@ public class Product implements Serializable {
             ", stock=" + getStock() +
             ", imageUrl='" + getImageUrl() + "'" +
             ", tags='" + getTags() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,59 @@
+package com.ecommerce.product.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Marks a deleted {@link Product} so that clients syncing catalog changes learn about the deletion.
+ * Tombstones expire after {@code application.catalog-changes.tombstone-retention}.
+ */
+@Document(collection = "product_tombstone")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ProductTombstone implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The id of the deleted product.
+     */
+    @Id
+    private String id;
+
+    @Field("deleted_date")
+    private Instant deletedDate;
+
+    public ProductTombstone() {}
+
+    public ProductTombstone(String id, Instant deletedDate) {
+        this.id = id;
+        this.deletedDate = deletedDate;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getDeletedDate() {
+        return this.deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductTombstone{" +
+            "id=" + getId() +
+            ", deletedDate='" + getDeletedDate() + "'" +
+            "}";
+    }
+}
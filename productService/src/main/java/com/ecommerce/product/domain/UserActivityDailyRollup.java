@@ -0,0 +1,104 @@
+package com.ecommerce.product.domain;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Number of user activities per product, action and day, compacted from expired {@link UserActivity} rows.
+ */
+@Document(collection = "user_activity_daily")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UserActivityDailyRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field("product_id")
+    private String productId;
+
+    @Field("action")
+    private String action;
+
+    @Field("day")
+    private LocalDate day;
+
+    @Field("count")
+    private Long count;
+
+    public static String idOf(String productId, String action, LocalDate day) {
+        return productId + ":" + action + ":" + day;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getProductId() {
+        return this.productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getAction() {
+        return this.action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public LocalDate getDay() {
+        return this.day;
+    }
+
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+
+    public Long getCount() {
+        return this.count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserActivityDailyRollup)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((UserActivityDailyRollup) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserActivityDailyRollup{" +
+            "id=" + getId() +
+            ", productId='" + getProductId() + "'" +
+            ", action='" + getAction() + "'" +
+            ", day='" + getDay() + "'" +
+            ", count=" + getCount() +
+            "}";
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.product.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Everything a user did with a product, compacted from expired {@link UserActivity} rows.
+ */
+@Document(collection = "user_product_activity")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class UserProductActivity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String id;
+
+    @Field("user_id_1")
+    private String userId1;
+
+    @Field("product_id")
+    private String productId;
+
+    @Field("actions")
+    private Map<String, Long> actions = new HashMap<>();
+
+    @Field("last_timestamp")
+    private Instant lastTimestamp;
+
+    public static String idOf(String userId1, String productId) {
+        return userId1 + ":" + productId;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId1() {
+        return this.userId1;
+    }
+
+    public void setUserId1(String userId1) {
+        this.userId1 = userId1;
+    }
+
+    public String getProductId() {
+        return this.productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * @return the number of activities per action.
+     */
+    public Map<String, Long> getActions() {
+        return this.actions;
+    }
+
+    public void setActions(Map<String, Long> actions) {
+        this.actions = actions;
+    }
+
+    public Instant getLastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    public void setLastTimestamp(Instant lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserProductActivity)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((UserProductActivity) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserProductActivity{" +
+            "id=" + getId() +
+            ", userId1='" + getUserId1() + "'" +
+            ", productId='" + getProductId() + "'" +
+            ", actions=" + getActions() +
+            ", lastTimestamp='" + getLastTimestamp() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.domain.Inventory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data MongoDB repository for the Inventory entity.
+ */
+@Repository
+public interface InventoryRepository extends MongoRepository<Inventory, String> {}
@@ -0,0 +1,11 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.domain.Product;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data reactive MongoDB repository for the Product entity, used by the non-blocking read API.
+ */
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {}
@@ -11,7 +11,7 @@ import java.util.Optional;
  * Spring Data MongoDB repository for the UserActivity entity.
  */
 @Repository
-public interface UserActivityRepository extends MongoRepository<UserActivity, String> {
+public interface UserActivityRepository extends MongoRepository<UserActivity, String>, UserActivityRepositoryCustom {
     Optional<UserActivity> findByUserId1AndProductIdAndAction(String userId1, String productId, String action);
 
     List<UserActivity> findByUserId1(String userId1);
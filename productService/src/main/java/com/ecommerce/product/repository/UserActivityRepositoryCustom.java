@@ -0,0 +1,18 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.domain.UserActivity;
+
+import java.util.Collection;
+
+/**
+ * Bulk operations on the UserActivity entity that Spring Data cannot derive.
+ */
+public interface UserActivityRepositoryCustom {
+    /**
+     * Upsert activities keyed by (user, product, action) in one unordered bulk write, keeping the latest timestamp.
+     *
+     * @param userActivities the activities to write.
+     * @return the number of documents inserted or modified.
+     */
+    int upsertAll(Collection<UserActivity> userActivities);
+}
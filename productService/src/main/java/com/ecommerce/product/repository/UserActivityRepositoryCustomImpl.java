@@ -0,0 +1,40 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.domain.UserActivity;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+/**
+ * Implementation of {@link UserActivityRepositoryCustom}.
+ */
+public class UserActivityRepositoryCustomImpl implements UserActivityRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserActivityRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int upsertAll(Collection<UserActivity> userActivities) {
+        if (userActivities.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserActivity.class);
+        for (UserActivity userActivity : userActivities) {
+            Query query = new Query(Criteria.where("userId1").is(userActivity.getUserId1())
+                    .and("productId").is(userActivity.getProductId())
+                    .and("action").is(userActivity.getAction()));
+            // $max so that a late flush never moves the timestamp backwards
+            bulkOperations.upsert(query, new Update().max("timestamp", userActivity.getTimestamp()));
+        }
+        BulkWriteResult result = bulkOperations.execute();
+        return result.getUpserts().size() + result.getModifiedCount();
+    }
+}
@@ -0,0 +1,326 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.dto.ProductCardDTO;
+import com.ecommerce.product.service.mapper.ProductCardMapper;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsCriteria;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds gzipped NDJSON snapshots of the catalog cards, for clients that start from nothing.
+ * <p>
+ * A snapshot is named after the change token it was built at: a client loads it, then calls
+ * {@code /api/products/changes?since=<token>} to catch up, so products written while the snapshot was built are
+ * simply sent again. Snapshots are immutable, rebuilt every {@code application.catalog-snapshot.cron} or on demand;
+ * the last {@code application.catalog-snapshot.retained} are kept so downloads in progress can finish.
+ * <p>
+ * Snapshots are stored in GridFS, so every replica serves the same versions. One replica at a time builds, under a
+ * {@link ClusterLock} lease, and none does while the latest snapshot is younger than
+ * {@code application.catalog-snapshot.min-interval}. Each replica copies the snapshots it serves into
+ * {@code application.catalog-snapshot.directory}, so they are still sent straight from local files. Cards carry no
+ * stock, which is read live from the {@link InventoryService inventory}.
+ */
+@Service
+public class CatalogSnapshotService implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    static final String LOCK = "catalog-snapshot";
+
+    private static final Pattern FILE_NAME = Pattern.compile("catalog-(\\d+)\\.ndjson\\.gz");
+
+    private final MongoTemplate mongoTemplate;
+
+    private final GridFsTemplate gridFsTemplate;
+
+    private final ClusterLock clusterLock;
+
+    private final ProductCardMapper productCardMapper;
+
+    private final ObjectWriter cardWriter;
+
+    private final ApplicationProperties.CatalogSnapshot properties;
+
+    private final ApplicationProperties.CatalogChanges changeProperties;
+
+    public CatalogSnapshotService(
+            MongoTemplate mongoTemplate,
+            GridFsTemplate gridFsTemplate,
+            ClusterLock clusterLock,
+            ProductCardMapper productCardMapper,
+            ObjectMapper objectMapper,
+            ApplicationProperties applicationProperties
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.clusterLock = clusterLock;
+        this.productCardMapper = productCardMapper;
+        this.cardWriter = objectMapper.copy()
+                .addMixIn(ProductCardDTO.class, SnapshotCard.class)
+                .writerFor(ProductCardDTO.class)
+                .withRootValueSeparator("\n");
+        this.properties = applicationProperties.getCatalogSnapshot();
+        this.changeProperties = applicationProperties.getCatalogChanges();
+    }
+
+    /**
+     * Build a first snapshot if the catalog has none yet.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        try {
+            if (latestFile().isEmpty()) {
+                build();
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not build the catalog snapshot : {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${application.catalog-snapshot.cron:0 0 * * * *}")
+    public void scheduledBuild() {
+        try {
+            build();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not build the catalog snapshot : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build a new snapshot and make it the latest, unless another replica is building one or the latest is younger
+     * than {@code application.catalog-snapshot.min-interval}.
+     *
+     * @return the new snapshot, or empty if none was built.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public synchronized Optional<Snapshot> build() throws IOException {
+        if (isRecent() || !clusterLock.tryAcquire(LOCK, properties.getLockLease())) {
+            return Optional.empty();
+        }
+        try {
+            // the lease may have been taken right after another replica released it
+            if (isRecent()) {
+                return Optional.empty();
+            }
+            return Optional.of(write());
+        } finally {
+            clusterLock.release(LOCK);
+        }
+    }
+
+    /**
+     * @return whether snapshots may be built on request, besides the scheduled builds.
+     */
+    public boolean isOnDemand() {
+        return properties.isOnDemand();
+    }
+
+    private Snapshot write() throws IOException {
+        long start = System.currentTimeMillis();
+        // the same bound as the changes endpoint, so catching up from the snapshot token misses nothing
+        long version = Instant.now().minus(changeProperties.getSafetyLag()).toEpochMilli();
+        Path directory = Files.createDirectories(properties.getDirectory());
+        Path file = directory.resolve(fileName(version));
+        Path temporary = Files.createTempFile(directory, "catalog-", ".tmp");
+
+        long count;
+        Query query = new Query();
+        query.fields().include(ProductService.CARD_FIELDS);
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            count = write(products.map(productCardMapper::toDto).iterator(), temporary);
+            try (InputStream in = Files.newInputStream(temporary)) {
+                gridFsTemplate.store(in, fileName(version), "application/x-ndjson", new Document("version", version));
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        Snapshot snapshot = new Snapshot(version, file, Files.size(file));
+        LOG.info("Built catalog snapshot {} of {} products, {} bytes, in {} ms", version, count, snapshot.size(), System.currentTimeMillis() - start);
+        deleteOldSnapshots();
+        return snapshot;
+    }
+
+    private boolean isRecent() {
+        long threshold = Instant.now().minus(properties.getMinInterval()).minus(changeProperties.getSafetyLag()).toEpochMilli();
+        return latestFile().map(CatalogSnapshotService::versionOf).filter(version -> version > threshold).isPresent();
+    }
+
+    /**
+     * @return the newest snapshot, or empty if none was built yet.
+     */
+    public Optional<Snapshot> getLatest() {
+        return latestFile().map(this::toLocal);
+    }
+
+    /**
+     * @param version the version of the snapshot.
+     * @return the snapshot, or empty if it does not exist or was deleted.
+     */
+    public Optional<Snapshot> get(long version) {
+        return Optional.ofNullable(gridFsTemplate.findOne(new Query(GridFsCriteria.whereFilename().is(fileName(version)))))
+                .map(this::toLocal);
+    }
+
+    private Optional<GridFSFile> latestFile() {
+        Query query = new Query(GridFsCriteria.whereMetaData("version").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "metadata.version"))
+                .limit(1);
+        return Optional.ofNullable(gridFsTemplate.find(query).first());
+    }
+
+    /**
+     * @return the snapshot stored in a GridFS file, copied into the local directory if not there yet.
+     */
+    private Snapshot toLocal(GridFSFile stored) {
+        long version = versionOf(stored);
+        Path file = properties.getDirectory().resolve(fileName(version));
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) != stored.getLength()) {
+                Path directory = Files.createDirectories(properties.getDirectory());
+                Path temporary = Files.createTempFile(directory, "catalog-", ".tmp");
+                try (InputStream in = gridFsTemplate.getResource(stored).getInputStream()) {
+                    Files.copy(in, temporary, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporary);
+                }
+                deleteOldLocalSnapshots();
+            }
+            return new Snapshot(version, file, Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write cards as gzipped NDJSON.
+     *
+     * @return the number of cards written.
+     */
+    long write(Iterator<ProductCardDTO> cards, Path file) throws IOException {
+        long count = 0;
+        try (
+                OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16), 1 << 16);
+                SequenceWriter writer = cardWriter.writeValues(out)
+        ) {
+            while (cards.hasNext()) {
+                writer.write(cards.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void deleteOldSnapshots() {
+        Query query = new Query(GridFsCriteria.whereMetaData("version").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "metadata.version"))
+                .skip(properties.getRetained());
+        List<GridFSFile> old = gridFsTemplate.find(query).into(new ArrayList<>());
+        for (GridFSFile file : old) {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(file.getObjectId())));
+        }
+        deleteOldLocalSnapshots();
+    }
+
+    private void deleteOldLocalSnapshots() {
+        List<Snapshot> snapshots;
+        try (Stream<Path> files = Files.list(properties.getDirectory())) {
+            snapshots = files.map(CatalogSnapshotService::toSnapshot)
+                    .flatMap(Optional::stream)
+                    .sorted(Comparator.comparingLong(Snapshot::version).reversed())
+                    .toList();
+        } catch (IOException e) {
+            LOG.warn("Could not list catalog snapshots : {}", e.getMessage());
+            return;
+        }
+        for (Snapshot snapshot : snapshots.subList(Math.min(properties.getRetained(), snapshots.size()), snapshots.size())) {
+            try {
+                Files.deleteIfExists(snapshot.file());
+            } catch (IOException e) {
+                LOG.warn("Could not delete catalog snapshot {} : {}", snapshot.file(), e.getMessage());
+            }
+        }
+    }
+
+    private static String fileName(long version) {
+        return "catalog-" + version + ".ndjson.gz";
+    }
+
+    private static long versionOf(GridFSFile file) {
+        return file.getMetadata().get("version", Number.class).longValue();
+    }
+
+    private static Optional<Snapshot> toSnapshot(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new Snapshot(Long.parseLong(matcher.group(1)), file, Files.size(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cards are written without their stock, which is not part of the catalog.
+     */
+    @JsonIgnoreProperties("stock")
+    private abstract static class SnapshotCard {}
+
+    /**
+     * A snapshot file.
+     *
+     * @param version the snapshot version, which is also the epoch millis of its change token.
+     * @param file    the local copy of the gzipped NDJSON file.
+     * @param size    the file size in bytes.
+     */
+    public record Snapshot(long version, Path file, long size) {
+
+        /**
+         * @return the token to pass as {@code since} to the changes endpoint after loading this snapshot.
+         */
+        public String changeToken() {
+            return version + ":";
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.index.CategoryTree;
+import com.ecommerce.product.service.index.FacetIndex;
+import com.ecommerce.product.service.index.SpellingIndex;
+import com.ecommerce.product.service.index.TrendingIndex;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms a new instance up before it takes traffic: the hottest products are loaded into the {@link ProductCache}, the
+ * recommendations of the most recently active users are computed, and the search, facet, suggest and similarity paths
+ * are run against hot products so they are compiled before the first real request.
+ * <p>
+ * The hottest products are the trending heavy hitters of the catalog and of every category, read from the
+ * {@link TrendingIndex} that earlier runners bootstrapped. Running last among the application runners holds the
+ * readiness state back, since Spring Boot only accepts traffic once every runner returned. The instance registers
+ * with Eureka as {@code STARTING} ({@code eureka.instance.initial-status}) and is only marked {@code UP} here. Warm-up
+ * is best effort: a failing step is logged and skipped, it gives up after {@code application.warm-up.timeout}, and its duration is
+ * recorded as {@code catalog.warmup}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CatalogWarmUp implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogWarmUp.class);
+
+    /**
+     * The default page size of the web layer, so the pages cached are the ones clients ask for.
+     */
+    private static final int PAGE_SIZE = 20;
+
+    private final ProductService productService;
+
+    private final UserActivityService userActivityService;
+
+    private final ProductCache productCache;
+
+    private final TrendingIndex trendingIndex;
+
+    private final CategoryTree categoryTree;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    private final ApplicationProperties.WarmUp properties;
+
+    private final int cachedPages;
+
+    private final Timer duration;
+
+    public CatalogWarmUp(
+            ProductService productService,
+            UserActivityService userActivityService,
+            ProductCache productCache,
+            TrendingIndex trendingIndex,
+            CategoryTree categoryTree,
+            MongoTemplate mongoTemplate,
+            ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.productService = productService;
+        this.userActivityService = userActivityService;
+        this.productCache = productCache;
+        this.trendingIndex = trendingIndex;
+        this.categoryTree = categoryTree;
+        this.mongoTemplate = mongoTemplate;
+        this.applicationInfoManager = applicationInfoManager;
+        this.properties = applicationProperties.getWarmUp();
+        this.cachedPages = applicationProperties.getProductCache().getCachedPages();
+        this.duration = Timer.builder("catalog.warmup")
+                .description("Time spent warming caches and request paths up before taking traffic")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (properties.isEnabled()) {
+                duration.record(this::warmUp);
+            }
+        } finally {
+            applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+
+        List<String> hottest = List.of();
+        try {
+            hottest = hottestProducts();
+            productCache.findAllById(hottest);
+            for (int page = 0; page < cachedPages && System.nanoTime() - deadline < 0; page++) {
+                productService.findAll(PageRequest.of(page, PAGE_SIZE));
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not preload the hottest products : {}", e.toString());
+        }
+
+        int users = 0;
+        for (String userId : recentUsers()) {
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            try {
+                userActivityService.getRecommendedProductCards(userId);
+                users++;
+            } catch (RuntimeException e) {
+                LOG.warn("Could not warm the recommendations of user {} up : {}", userId, e.toString());
+            }
+        }
+
+        int searches = 0;
+        for (int i = 0; i < properties.getSearches() && !hottest.isEmpty() && System.nanoTime() - deadline < 0; i++) {
+            try {
+                search(hottest.get(i % hottest.size()));
+                searches++;
+            } catch (RuntimeException e) {
+                LOG.warn("Could not warm the search paths up : {}", e.toString());
+                break;
+            }
+        }
+
+        LOG.info("Warmed up with {} hot products, {} users and {} searches in {} ms",
+                hottest.size(), users, searches, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return the ids of the most popular products of the catalog and of each category, most popular first, at most
+     * {@code application.warm-up.products}.
+     */
+    private List<String> hottestProducts() {
+        int limit = properties.getProducts();
+        Set<String> ids = new LinkedHashSet<>(trendingIndex.top(null, limit));
+        for (CategoryTree.Category category : categoryTree.categories()) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.addAll(trendingIndex.top(category.name(), limit - ids.size()));
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * @return the most recently active users, at most {@code application.warm-up.users}.
+     */
+    private Set<String> recentUsers() {
+        Set<String> users = new LinkedHashSet<>();
+        if (properties.getUsers() <= 0) {
+            return users;
+        }
+        // users are repeated across their activities; read a few per user wanted
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "timestamp")).limit(properties.getUsers() * 10);
+        query.fields().include("user_id_1");
+        try {
+            for (UserActivity activity : mongoTemplate.find(query, UserActivity.class)) {
+                if (activity.getUserId1() != null) {
+                    users.add(activity.getUserId1());
+                }
+                if (users.size() >= properties.getUsers()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not read the recently active users : {}", e.toString());
+        }
+        return users;
+    }
+
+    /**
+     * Run the read paths of a product page and its search box on a hot product.
+     */
+    private void search(String productId) {
+        ProductDTO product = productService.findOne(productId).orElse(null);
+        if (product == null || product.getName() == null) {
+            return;
+        }
+        List<String> words = SpellingIndex.tokenize(product.getName());
+        String word = words.isEmpty() ? product.getName() : words.get(0);
+        Pageable firstPage = PageRequest.of(0, PAGE_SIZE);
+        productService.searchProductCards(word, null, null, firstPage);
+        if (product.getCategory() != null) {
+            Map<FacetIndex.Facet, List<String>> facets = Map.of(FacetIndex.Facet.CATEGORY, List.of(product.getCategory()));
+            productService.searchProductCards(null, null, null, facets, firstPage);
+            productService.findFacets(null, null, null, facets, 10);
+        }
+        productService.suggest(word.substring(0, Math.min(3, word.length())), 10);
+        productService.findSimilar(productId, 10);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.product.service;
+
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Leases shared by all the replicas, for jobs that must run on one replica at a time.
+ * <p>
+ * A lease is a document of the {@code cluster_lock} collection, taken with a single {@code findAndModify} when it is
+ * free or expired. A replica that dies keeps the lease until it expires, so long jobs take a short lease and renew it
+ * as they progress. Expiry compares the clocks of the replicas, leases must be much longer than their skew.
+ */
+@Component
+public class ClusterLock {
+
+    static final String COLLECTION = "cluster_lock";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    public ClusterLock(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @param name  the name of the lease.
+     * @param lease how long the lease is held without renewal.
+     * @return whether this replica now holds the lease.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(name).orOperator(
+                Criteria.where("locked_until").lte(now),
+                Criteria.where("owner").is(owner)
+        ));
+        try {
+            return mongoTemplate.findAndModify(
+                    query,
+                    new Update().set("owner", owner).set("locked_until", now.plus(lease)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class,
+                    COLLECTION
+            ) != null;
+        } catch (DuplicateKeyException e) {
+            // the lease exists and is held by another replica, so the upsert tried to insert it again
+            return false;
+        }
+    }
+
+    /**
+     * @param name  the name of the lease.
+     * @param lease how long the lease is held from now without renewal.
+     * @return whether this replica still held the lease, and now holds it for {@code lease}.
+     */
+    public boolean renew(String name, Duration lease) {
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(name).and("owner").is(owner)),
+                new Update().set("locked_until", Instant.now().plus(lease)),
+                COLLECTION
+        ).getMatchedCount() > 0;
+    }
+
+    /**
+     * Release a lease held by this replica.
+     *
+     * @param name the name of the lease.
+     */
+    public void release(String name) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(name).and("owner").is(owner)), COLLECTION);
+    }
+}
@@ -0,0 +1,233 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.domain.Inventory;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.repository.InventoryRepository;
+import com.ecommerce.product.service.dto.ProductDTO;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Service for the stock of the products, kept in the {@code inventory} collection.
+ * <p>
+ * Sales and restocks are single atomic {@code $inc}s on a small document, so they neither rewrite the product nor
+ * publish a {@link com.ecommerce.product.service.event.ProductChangedEvent}: catalog caches and indexes are left alone.
+ * The stock is joined onto the DTOs that show it, with one {@code $in} query per response; products without an
+ * inventory record have no stock.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class InventoryService implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final MongoTemplate mongoTemplate;
+
+    public InventoryService(InventoryRepository inventoryRepository, MongoTemplate mongoTemplate) {
+        this.inventoryRepository = inventoryRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Products written before the inventory existed carry their stock in the product document; move it to the
+     * inventory, one batch at a time. Inventory records already there are kept, so a restarted migration never undoes
+     * a sale. The field is only unset where it still holds the value copied: during a rolling deploy, replicas still
+     * on the previous version keep writing {@code product.stock}, and such products keep the field and are reported.
+     * Their stock is not reconciled with the inventory, so the migration is best run once those replicas are gone.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        Query query = new Query(Criteria.where("stock").exists(true));
+        query.fields().include("stock");
+        long moved = 0;
+        long changed = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Product.class))) {
+            Iterator<Document> products = stream.iterator();
+            List<Document> batch = new ArrayList<>(MIGRATION_BATCH_SIZE);
+            while (products.hasNext()) {
+                batch.add(products.next());
+                if (batch.size() == MIGRATION_BATCH_SIZE || !products.hasNext()) {
+                    long unset = migrate(batch);
+                    moved += unset;
+                    changed += batch.size() - unset;
+                    batch.clear();
+                }
+            }
+            if (moved > 0) {
+                LOG.info("Moved the stock of {} products to the inventory", moved);
+            }
+            if (changed > 0) {
+                LOG.warn("Kept the stock field of {} products whose stock changed while it was moved to the inventory", changed);
+            }
+        } catch (DataAccessException e) {
+            LOG.warn("Could not move product stock to the inventory : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of products whose stock field was unset.
+     */
+    private long migrate(List<Document> products) {
+        Instant now = Instant.now();
+        BulkOperations inventory = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+        BulkOperations unset = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (Document product : products) {
+            inventory.upsert(
+                    new Query(Criteria.where("id").is(product.get("_id"))),
+                    new Update().setOnInsert("stock", product.get("stock")).setOnInsert("last_modified_date", now)
+            );
+            unset.updateOne(
+                    new Query(Criteria.where("id").is(product.get("_id")).and("stock").is(product.get("stock"))),
+                    new Update().unset("stock")
+            );
+        }
+        inventory.execute();
+        return unset.execute().getModifiedCount();
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @return the stock of the product, or {@code null} if it has no inventory record.
+     */
+    public Integer findStock(String productId) {
+        return inventoryRepository.findById(productId).map(Inventory::getStock).orElse(null);
+    }
+
+    /**
+     * @param productIds the ids of the products.
+     * @return the stock of the products with an inventory record, read with a single query.
+     */
+    public Map<String, Integer> findStock(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(Criteria.where("id").in(new LinkedHashSet<>(productIds)));
+        query.fields().include("stock");
+        Map<String, Integer> stock = new HashMap<>();
+        for (Inventory inventory : mongoTemplate.find(query, Inventory.class)) {
+            stock.put(inventory.getId(), inventory.getStock());
+        }
+        return stock;
+    }
+
+    /**
+     * Set the stock of each element of a list from the inventory.
+     *
+     * @param items    the elements, updated in place.
+     * @param id       the product id of an element.
+     * @param setStock the stock setter of an element.
+     * @return the elements.
+     */
+    public <T> List<T> joinStock(List<T> items, Function<T, String> id, BiConsumer<T, Integer> setStock) {
+        Map<String, Integer> stock = findStock(items.stream().map(id).filter(Objects::nonNull).toList());
+        for (T item : items) {
+            setStock.accept(item, stock.get(id.apply(item)));
+        }
+        return items;
+    }
+
+    /**
+     * Replace the stock of a product, creating its inventory record if needed.
+     *
+     * @param productId the id of the product.
+     * @param stock     the new stock, ignored if {@code null}.
+     */
+    public void setStock(String productId, Integer stock) {
+        if (stock == null) {
+            return;
+        }
+        mongoTemplate.upsert(
+                new Query(Criteria.where("id").is(productId)),
+                new Update().set("stock", stock).set("last_modified_date", Instant.now()),
+                Inventory.class
+        );
+    }
+
+    /**
+     * Remove the inventory record of a deleted product.
+     *
+     * @param productId the id of the product.
+     */
+    public void delete(String productId) {
+        inventoryRepository.deleteById(productId);
+    }
+
+    /**
+     * Add to the stock of a product.
+     *
+     * @param productId the id of the product.
+     * @param quantity  the quantity received.
+     */
+    public void restock(String productId, int quantity) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("id").is(productId)),
+                new Update().inc("stock", quantity).set("last_modified_date", Instant.now()),
+                Inventory.class
+        );
+    }
+
+    /**
+     * Take the quantities of an order out of stock, all or nothing: each line is an atomic conditional decrement, and
+     * the lines already taken are put back when a later one cannot be served.
+     *
+     * @param productDTOs the order lines, with {@code productId} and {@code qty}.
+     * @throws RuntimeException if a product has no inventory record or not enough stock.
+     */
+    public void reduceStock(List<ProductDTO> productDTOs) {
+        List<ProductDTO> reserved = new ArrayList<>(productDTOs.size());
+        try {
+            for (ProductDTO productDTO : productDTOs) {
+                reserve(productDTO.getProductId(), productDTO.getQty());
+                reserved.add(productDTO);
+            }
+        } catch (RuntimeException e) {
+            for (ProductDTO productDTO : reserved) {
+                restock(productDTO.getProductId(), productDTO.getQty());
+            }
+            throw e;
+        }
+    }
+
+    private void reserve(String productId, int quantity) {
+        long updated = mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(productId).and("stock").gte(quantity)),
+                new Update().inc("stock", -quantity).set("last_modified_date", Instant.now()),
+                Inventory.class
+        ).getModifiedCount();
+        if (updated == 0) {
+            if (!inventoryRepository.existsById(productId)) {
+                throw new RuntimeException("Product not found: " + productId);
+            }
+            throw new RuntimeException("Insufficient stock for product: " + productId);
+        }
+    }
+}
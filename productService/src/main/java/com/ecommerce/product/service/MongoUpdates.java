@@ -0,0 +1,35 @@
+package com.ecommerce.product.service;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Field-level updates built from partially filled entities.
+ */
+final class MongoUpdates {
+
+    private MongoUpdates() {}
+
+    /**
+     * Build a {@code $set} of the fields of an entity that are not {@code null}, under their document field names.
+     *
+     * @param converter the converter mapping the entity to its document.
+     * @param entity    the entity holding the new values.
+     * @param excluded  document fields never set, besides {@code _id}.
+     * @return the update.
+     */
+    static Update setNonNullFields(MongoConverter converter, Object entity, String... excluded) {
+        Document document = new Document();
+        // the converter leaves null properties out of the document
+        converter.write(entity, document);
+        document.remove("_id");
+        document.remove("_class");
+        for (String field : excluded) {
+            document.remove(field);
+        }
+        Update update = new Update();
+        document.forEach(update::set);
+        return update;
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded near-cache in front of the product collection.
+ * <p>
+ * Holds single products by id and the first {@code application.product-cache.cached-pages} catalog pages.
+ * Entries expire after {@code application.product-cache.time-to-live} and are invalidated by every
+ * {@link ProductChangedEvent}, so writes on this node are visible immediately.
+ */
+@Component
+public class ProductCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductCache.class);
+
+    private final ProductRepository productRepository;
+
+    private final Cache<String, Product> products;
+
+    private final Cache<Pageable, Page<Product>> pages;
+
+    private final int cachedPages;
+
+    public ProductCache(ProductRepository productRepository, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        ApplicationProperties.ProductCache properties = applicationProperties.getProductCache();
+        this.cachedPages = properties.getCachedPages();
+        this.products = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumPages())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "product.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "product.pages");
+    }
+
+    /**
+     * Get one product by id, loading it from the repository on a miss.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    public Optional<Product> findById(String id) {
+        return Optional.ofNullable(products.get(id, key -> productRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Get several products by id. Cached products are served from memory and all misses are loaded with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities found, keyed by id; ids that do not exist are absent from the map.
+     */
+    public Map<String, Product> findAllById(Collection<String> ids) {
+        return products.getAll(ids, missing -> productRepository.findAllById(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+    }
+
+    /**
+     * Get a page of products. Only the first pages of the catalog are cached, deeper pages go straight to the repository.
+     *
+     * @param pageable the pagination information.
+     * @return the page of entities.
+     */
+    public Page<Product> findAll(Pageable pageable) {
+        if (!isCached(pageable)) {
+            return productRepository.findAll(pageable);
+        }
+        return pages.get(pageable, productRepository::findAll);
+    }
+
+    /**
+     * @param pageable the pagination information.
+     * @return whether {@link #findAll(Pageable)} serves this page from the cache.
+     */
+    public boolean isCached(Pageable pageable) {
+        return pageable.isPaged() && pageable.getPageNumber() < cachedPages;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        LOG.debug("Invalidating cached product : {}", event);
+        products.invalidate(event.getProductId());
+        pages.invalidateAll();
+    }
+}
@@ -0,0 +1,172 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.domain.ProductTombstone;
+import com.ecommerce.product.service.dto.ProductChangesDTO;
+import com.ecommerce.product.service.mapper.ProductMapper;
+import jakarta.ws.rs.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catalog delta sync: the products updated and deleted after a change token.
+ * <p>
+ * A token is {@code <millis>:<id>}, the position of the last change a client has seen in
+ * {@code (last_modified_date, _id)} order; an empty id means every change up to {@code millis} was seen. Deletions
+ * come from {@link ProductTombstone}s in {@code (deleted_date, _id)} order and are merged in. Changes younger than
+ * {@code application.catalog-changes.safety-lag} are held back, so a write stamped earlier but committed later than a
+ * read is not skipped. Tokens older than the tombstone retention cannot be served, since deletions may be missing.
+ * <p>
+ * The pages of a full sync start from the epoch, so their tokens are {@code s<started>.<millis>:<id>}: the retention
+ * applies to {@code started}, the upper bound of the first page, and only deletions after it are sent, since the
+ * products deleted before were never part of the sync.
+ * Stock lives in the {@link InventoryService inventory} and moves with every sale, so changes carry none.
+ */
+@Service
+public class ProductChangeService implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductChangeService.class);
+
+    private static final Comparator<Change> ORDER = Comparator.comparing(Change::time).thenComparing(Change::id);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ProductMapper productMapper;
+
+    private final ApplicationProperties.CatalogChanges properties;
+
+    public ProductChangeService(MongoTemplate mongoTemplate, ProductMapper productMapper, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.productMapper = productMapper;
+        this.properties = applicationProperties.getCatalogChanges();
+    }
+
+    /**
+     * Products written before auditing was enabled have no modification date and would never be synced;
+     * date them at the epoch so they are part of every full sync.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long updated = mongoTemplate.updateMulti(
+                    new Query(Criteria.where("lastModifiedDate").exists(false)),
+                    new Update().set("lastModifiedDate", Instant.EPOCH),
+                    Product.class
+            ).getModifiedCount();
+            if (updated > 0) {
+                LOG.info("Dated {} products without a modification date for catalog sync", updated);
+            }
+        } catch (DataAccessException e) {
+            LOG.warn("Could not date products without a modification date : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the changes after a token.
+     *
+     * @param since the change token, or {@code null} for the whole catalog.
+     * @param limit the maximum number of changes to return.
+     * @return the changes, or empty if the token is too old to be served and the client must reload the catalog.
+     */
+    public Optional<ProductChangesDTO> findChanges(String since, int limit) {
+        LOG.debug("Request to get Product changes : {}", since);
+        Instant now = Instant.now();
+        Instant upper = now.minus(properties.getSafetyLag());
+        Instant after = null;
+        String afterId = "";
+        // the start of the full sync this token continues, if any
+        Instant started = null;
+        if (since != null && !since.isEmpty()) {
+            String position = since;
+            try {
+                if (position.startsWith("s")) {
+                    int dot = position.indexOf('.');
+                    if (dot < 0) {
+                        throw new BadRequestException("Invalid change token " + since);
+                    }
+                    started = Instant.ofEpochMilli(Long.parseLong(position.substring(1, dot)));
+                    position = position.substring(dot + 1);
+                }
+                int separator = position.indexOf(':');
+                after = Instant.ofEpochMilli(Long.parseLong(separator < 0 ? position : position.substring(0, separator)));
+                afterId = separator < 0 ? "" : position.substring(separator + 1);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid change token " + since);
+            }
+            Instant seenUpTo = started != null ? started : after;
+            if (seenUpTo.isBefore(now.minus(properties.getTombstoneRetention()))) {
+                return Optional.empty();
+            }
+        } else {
+            started = upper;
+        }
+
+        List<Change> changes = new ArrayList<>();
+        mongoTemplate.find(changesQuery("lastModifiedDate", after, afterId, upper, limit), Product.class)
+                .forEach(product -> changes.add(new Change(product.getLastModifiedDate(), product.getId(), product)));
+        if (after != null && started != null && started.isAfter(after)) {
+            // deletions before the full sync started are of products it never sent
+            mongoTemplate.find(changesQuery("deletedDate", started, "", upper, limit), ProductTombstone.class)
+                    .forEach(tombstone -> changes.add(new Change(tombstone.getDeletedDate(), tombstone.getId(), null)));
+        } else if (after != null) {
+            mongoTemplate.find(changesQuery("deletedDate", after, afterId, upper, limit), ProductTombstone.class)
+                    .forEach(tombstone -> changes.add(new Change(tombstone.getDeletedDate(), tombstone.getId(), null)));
+        }
+        changes.sort(ORDER);
+
+        ProductChangesDTO result = new ProductChangesDTO();
+        result.setHasMore(changes.size() > limit);
+        List<Change> page = changes.subList(0, Math.min(limit, changes.size()));
+        for (Change change : page) {
+            if (change.product() != null) {
+                result.getUpdated().add(productMapper.toDto(change.product()));
+            } else {
+                result.getDeleted().add(change.id());
+            }
+        }
+        if (result.isHasMore()) {
+            Change last = page.get(page.size() - 1);
+            String position = last.time().toEpochMilli() + ":" + last.id();
+            // once past the start of the full sync, the position alone is a regular token
+            result.setNextToken(started != null && started.isAfter(last.time()) ? "s" + started.toEpochMilli() + "." + position : position);
+        } else {
+            // caught up: everything up to the upper bound has been seen
+            result.setNextToken(upper.toEpochMilli() + ":");
+        }
+        return Optional.of(result);
+    }
+
+    private static Query changesQuery(String field, Instant after, String afterId, Instant upper, int limit) {
+        Criteria criteria = Criteria.where(field).lte(upper);
+        if (after != null && afterId.isEmpty()) {
+            criteria = criteria.gt(after);
+        } else if (after != null) {
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where(field).gt(after),
+                    Criteria.where(field).is(after).and("id").gt(afterId)
+            ));
+        }
+        return new Query(criteria).with(Sort.by(field, "id")).limit(limit + 1);
+    }
+
+    /**
+     * A product update, or a deletion when {@code product} is {@code null}.
+     */
+    private record Change(Instant time, String id, Product product) {}
+}
@@ -0,0 +1,327 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Inventory;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.dto.ProductImportReportDTO;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import of {@link Product}s from JSON, NDJSON or CSV catalogs.
+ * <p>
+ * Rows are stream-parsed, so only one batch of {@code application.product-import.batch-size} rows is held in memory
+ * at a time. Each batch is mapped and validated in parallel and written with a single unordered bulk upsert keyed on
+ * the product id, plus one into the inventory for the stock; rows without an id get a new one. Each upsert
+ * increments the product version, so concurrent conditional updates of the products fail. Invalid rows are
+ * counted and reported, they do not stop the import.
+ * <p>
+ * Imported products are announced with a {@link ProductChangedEvent} each, so the cache and in-memory indexes of this
+ * instance follow. The import command turns this off with {@code application.product-import.publish-events}: it builds
+ * no index, and the running instances learn about the products through their change stream.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    public enum Format {
+        /**
+         * A JSON array of products, or products concatenated at the root. MongoDB extended JSON exports are accepted.
+         */
+        JSON,
+        /**
+         * One JSON product per line.
+         */
+        NDJSON,
+        /**
+         * Comma separated values with a header row naming the product fields.
+         */
+        CSV;
+
+        public static Format fromFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            return JSON;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    private final ApplicationProperties.ProductImport properties;
+
+    public ProductImportService(
+            MongoTemplate mongoTemplate,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            ApplicationProperties applicationProperties
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.readerFor(JsonNode.class);
+        this.csvReader = new CsvMapper().readerFor(JsonNode.class).with(CsvSchema.emptySchema().withHeader());
+        this.properties = applicationProperties.getProductImport();
+    }
+
+    /**
+     * Import every product of a catalog. Products whose id already exists are merged: the fields of the row overwrite
+     * the stored ones, fields missing from the row keep their stored value, and the creation date is kept.
+     * Malformed input stops the import; the rows before it stay imported and the error is reported.
+     *
+     * @param in     the catalog, read until exhausted but not closed.
+     * @param format the catalog format.
+     * @return the import report.
+     * @throws IOException if the catalog cannot be read.
+     */
+    public ProductImportReportDTO importProducts(InputStream in, Format format) throws IOException {
+        LOG.debug("Request to import Products : {}", format);
+        long start = System.nanoTime();
+        ProductImportReportDTO report = new ProductImportReportDTO();
+        List<JsonNode> batch = new ArrayList<>(properties.getBatchSize());
+
+        ObjectReader reader = format == Format.CSV ? csvReader : jsonReader;
+        try (MappingIterator<JsonNode> rows = reader.readValues(in)) {
+            while (rows.hasNextValue()) {
+                batch.add(rows.nextValue());
+                if (batch.size() == properties.getBatchSize()) {
+                    importBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            reject(report, report.getRows() + batch.size() + 1, "malformed input, import stopped: " + e.getOriginalMessage());
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getRows() * 1e9 / elapsedNanos);
+        LOG.info("Imported {} of {} products ({} rejected) in {} ms, {} rows/s",
+                report.getImported(), report.getRows(), report.getRejected(), report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private void importBatch(List<JsonNode> batch, ProductImportReportDTO report) {
+        long firstRow = report.getRows() + 1;
+        Instant now = Instant.now();
+        List<Row> rows = IntStream.range(0, batch.size())
+                .parallel()
+                .mapToObj(i -> toRow(firstRow + i, batch.get(i), now))
+                .toList();
+        report.setRows(report.getRows() + batch.size());
+
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.error() != null) {
+                reject(report, row.number(), row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        valid.forEach(row -> operations.upsert(new Query(Criteria.where("id").is(row.product().getId())), row.update()));
+        BitSet failed = new BitSet(valid.size());
+        try {
+            operations.execute();
+        } catch (BulkOperationException e) {
+            // unordered bulk write: the other operations were applied
+            for (BulkWriteError error : e.getErrors()) {
+                failed.set(error.getIndex());
+                reject(report, valid.get(error.getIndex()).number(), error.getMessage());
+            }
+        }
+
+        if (properties.isPublishEvents()) {
+            for (int i = 0; i < valid.size(); i++) {
+                if (!failed.get(i)) {
+                    // bulk writes bypass auditing and the repository, so caches and indexes are told explicitly
+                    eventPublisher.publishEvent(ProductChangedEvent.saved(valid.get(i).product()));
+                }
+            }
+        }
+        report.setImported(report.getImported() + valid.size() - failed.cardinality());
+
+        BulkOperations inventory = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Inventory.class);
+        List<Row> stocked = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            Product product = valid.get(i).product();
+            if (!failed.get(i) && product.getStock() != null) {
+                inventory.upsert(
+                        new Query(Criteria.where("id").is(product.getId())),
+                        new Update().set("stock", product.getStock()).set("last_modified_date", now)
+                );
+                stocked.add(valid.get(i));
+            }
+        }
+        if (stocked.isEmpty()) {
+            return;
+        }
+        try {
+            inventory.execute();
+        } catch (BulkOperationException e) {
+            // the products were written, only their stock is missing
+            for (BulkWriteError error : e.getErrors()) {
+                addError(report, stocked.get(error.getIndex()).number(), "stock not written: " + error.getMessage());
+            }
+        }
+    }
+
+    private Row toRow(long number, JsonNode node, Instant now) {
+        Product product;
+        try {
+            product = toProduct(node);
+        } catch (IllegalArgumentException e) {
+            return new Row(number, null, null, e.getMessage());
+        }
+
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return new Row(number, null, null, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        if (product.getId() == null) {
+            product.setId(new ObjectId().toHexString());
+        }
+        product.setLastModifiedDate(now);
+
+        Document document = new Document();
+        mongoTemplate.getConverter().write(product, document);
+        document.remove("_id");
+        // the import overwrites the product fields, so writes of the version read before are stale
+        document.remove("version");
+        Update update = new Update().setOnInsert("created_date", now).inc("version", 1);
+        document.forEach(update::set);
+        return new Row(number, product, update, null);
+    }
+
+    private static Product toProduct(JsonNode node) {
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("not a product object");
+        }
+        Product product = new Product();
+        product.setId(text(node, "id", "_id"));
+        product.setName(text(node, "name"));
+        product.setDescription(text(node, "description"));
+        product.setPrice(decimal(node, "price"));
+        product.setCategory(text(node, "category"));
+        product.setBrand(text(node, "brand"));
+        product.setStock(integer(node, "stock"));
+        product.setImageUrl(text(node, "image_url", "imageUrl"));
+        product.setTags(text(node, "tags"));
+        return product;
+    }
+
+    /**
+     * @return the text of the first of {@code names} present in {@code node}, or {@code null} if none has a value.
+     */
+    private static String text(JsonNode node, String... names) {
+        for (String name : names) {
+            JsonNode value = value(node.get(name));
+            if (value != null && !value.isNull() && !value.asText().isBlank()) {
+                return value.asText().trim();
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal decimal(JsonNode node, String name) {
+        String text = text(node, name);
+        try {
+            return text == null ? null : new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + text);
+        }
+    }
+
+    private static Integer integer(JsonNode node, String name) {
+        String text = text(node, name);
+        try {
+            return text == null ? null : Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not an integer: " + text);
+        }
+    }
+
+    /**
+     * Unwrap MongoDB extended JSON scalars such as {@code {"$oid": "..."}} or {@code {"$numberDecimal": "..."}}.
+     */
+    private static JsonNode value(JsonNode node) {
+        if (node != null && node.isObject() && node.size() == 1 && node.fieldNames().next().startsWith("$")) {
+            return node.elements().next();
+        }
+        return node;
+    }
+
+    private void reject(ProductImportReportDTO report, long row, String error) {
+        report.setRejected(report.getRejected() + 1);
+        addError(report, row, error);
+    }
+
+    private void addError(ProductImportReportDTO report, long row, String error) {
+        if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+            report.getErrors().add("Row " + row + ": " + error);
+        }
+    }
+
+    private record Row(long number, Product product, Update update, String error) {}
+}
@@ -1,22 +1,62 @@
 package com.ecommerce.product.service;
 
 import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.domain.ProductTombstone;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.ProductTombstoneRepository;
+import com.ecommerce.product.service.dto.CategoryDTO;
+import com.ecommerce.product.service.dto.PriceBucketDTO;
+import com.ecommerce.product.service.dto.ProductBatchDTO;
+import com.ecommerce.product.service.dto.ProductCardDTO;
 import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.dto.ProductEngagementDTO;
+import com.ecommerce.product.service.dto.ProductFacetsDTO;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import com.ecommerce.product.service.index.CatalogEntry;
+import com.ecommerce.product.service.index.CatalogIndex;
+import com.ecommerce.product.service.index.CategoryTree;
+import com.ecommerce.product.service.index.EngagementIndex;
+import com.ecommerce.product.service.index.FacetIndex;
+import com.ecommerce.product.service.index.PriceIndex;
+import com.ecommerce.product.service.index.SimilarityIndex;
+import com.ecommerce.product.service.index.SpellingIndex;
+import com.ecommerce.product.service.index.SuggestIndex;
+import com.ecommerce.product.service.index.TrendingIndex;
+import com.ecommerce.product.service.mapper.ProductCardMapper;
 import com.ecommerce.product.service.mapper.ProductMapper;
+import jakarta.ws.rs.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 /**
  * Service Implementation for managing {@link com.ecommerce.product.domain.Product}.
@@ -26,16 +66,90 @@ public class ProductService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ProductService.class);
 
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Replacements retried when the product changes between its read and its replacement.
+     */
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    /**
+     * Document fields read for {@link ProductCardDTO}, everything else is left on the server.
+     */
+    public static final String[] CARD_FIELDS = {"name", "price", "image_url"};
+
     private final ProductRepository productRepository;
 
+    private final ProductTombstoneRepository productTombstoneRepository;
+
     private final ProductMapper productMapper;
 
+    private final ProductCardMapper productCardMapper;
+
     private final MongoTemplate mongoTemplate;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper, MongoTemplate mongoTemplate) {
+    private final ProductCache productCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TrendingIndex trendingIndex;
+
+    private final SuggestIndex suggestIndex;
+
+    private final SpellingIndex spellingIndex;
+
+    private final CatalogIndex catalogIndex;
+
+    private final FacetIndex facetIndex;
+
+    private final PriceIndex priceIndex;
+
+    private final SimilarityIndex similarityIndex;
+
+    private final EngagementIndex engagementIndex;
+
+    private final CategoryTree categoryTree;
+
+    private final InventoryService inventoryService;
+
+    public ProductService(
+            ProductRepository productRepository,
+            ProductTombstoneRepository productTombstoneRepository,
+            ProductMapper productMapper,
+            ProductCardMapper productCardMapper,
+            MongoTemplate mongoTemplate,
+            ProductCache productCache,
+            ApplicationEventPublisher eventPublisher,
+            TrendingIndex trendingIndex,
+            SuggestIndex suggestIndex,
+            SpellingIndex spellingIndex,
+            CatalogIndex catalogIndex,
+            FacetIndex facetIndex,
+            PriceIndex priceIndex,
+            SimilarityIndex similarityIndex,
+            EngagementIndex engagementIndex,
+            CategoryTree categoryTree,
+            InventoryService inventoryService
+    ) {
         this.productRepository = productRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
         this.productMapper = productMapper;
+        this.productCardMapper = productCardMapper;
         this.mongoTemplate = mongoTemplate;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+        this.trendingIndex = trendingIndex;
+        this.suggestIndex = suggestIndex;
+        this.spellingIndex = spellingIndex;
+        this.catalogIndex = catalogIndex;
+        this.facetIndex = facetIndex;
+        this.priceIndex = priceIndex;
+        this.similarityIndex = similarityIndex;
+        this.engagementIndex = engagementIndex;
+        this.categoryTree = categoryTree;
+        this.inventoryService = inventoryService;
     }
 
     /**
@@ -48,40 +162,112 @@ public class ProductService {
         LOG.debug("Request to save Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
+        inventoryService.setStock(product.getId(), productDTO.getStock());
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
         return productMapper.toDto(product);
     }
 
     /**
-     * Update a product.
+     * Update a product. The document is replaced with a single conditional {@code findAndReplace} and its version is
+     * incremented; when the DTO carries a version, the update only applies if the product is still at that version.
      *
      * @param productDTO the entity to save.
      * @return the persisted entity.
+     * @throws OptimisticLockingFailureException if the product was updated since the version of the DTO.
      */
     public ProductDTO update(ProductDTO productDTO) {
         LOG.debug("Request to update Product : {}", productDTO);
-        Product product = productMapper.toEntity(productDTO);
-        product = productRepository.save(product);
-        return productMapper.toDto(product);
+        Long expectedVersion = productDTO.getVersion();
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            Product existing = productRepository.findById(productDTO.getId()).orElse(null);
+            long version = existing == null || existing.getVersion() == null ? 0 : existing.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                break;
+            }
+            Product replacement = productMapper.toEntity(productDTO);
+            replacement.setVersion(version + 1);
+            Product product;
+            if (existing == null) {
+                product = productRepository.save(replacement);
+            } else {
+                // the document is replaced: keep the creation audit, which the DTO does not carry
+                replacement.setCreatedBy(existing.getCreatedBy());
+                replacement.setCreatedDate(existing.getCreatedDate());
+                product = mongoTemplate.findAndReplace(
+                        new Query(versionCriteria(productDTO.getId(), version)),
+                        replacement,
+                        FindAndReplaceOptions.options().returnNew()
+                );
+                if (product == null) {
+                    // updated concurrently: retry on the new version, unless the client asked for the one it read
+                    continue;
+                }
+            }
+            inventoryService.setStock(product.getId(), productDTO.getStock());
+            eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+            ProductDTO result = productMapper.toDto(product);
+            result.setStock(productDTO.getStock());
+            return result;
+        }
+        throw new OptimisticLockingFailureException(
+                "Product " + productDTO.getId() + " was updated since version " + (expectedVersion != null ? expectedVersion : "read")
+        );
     }
 
     /**
-     * Partially update a product.
+     * Partially update a product: the non-null fields of the DTO are set in place with a single
+     * {@code findAndModify}, so concurrent updates of other fields are kept. The product version is incremented; when
+     * the DTO carries a version, the update only applies if the product is still at that version. A stock change goes
+     * to the inventory; when it is the only change, the product is left untouched.
      *
      * @param productDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the product does not exist.
+     * @throws OptimisticLockingFailureException if the product was updated since the version of the DTO.
      */
     public Optional<ProductDTO> partialUpdate(ProductDTO productDTO) {
         LOG.debug("Request to partially update Product : {}", productDTO);
+        Long expectedVersion = productDTO.getVersion();
+        Criteria criteria = expectedVersion != null
+                ? versionCriteria(productDTO.getId(), expectedVersion)
+                : Criteria.where("id").is(productDTO.getId());
+        Update update = MongoUpdates.setNonNullFields(mongoTemplate.getConverter(), productMapper.toEntity(productDTO), "version");
+        if (productDTO.getStock() != null && update.getUpdateObject().isEmpty() && expectedVersion == null) {
+            if (!productRepository.existsById(productDTO.getId())) {
+                return Optional.empty();
+            }
+            inventoryService.setStock(productDTO.getId(), productDTO.getStock());
+            return findOne(productDTO.getId());
+        }
+        update.set("last_modified_date", Instant.now()).inc("version", 1);
 
-        return productRepository
-                .findById(productDTO.getId())
-                .map(existingProduct -> {
-                    productMapper.partialUpdate(existingProduct, productDTO);
+        Product product = mongoTemplate.findAndModify(
+                new Query(criteria),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Product.class
+        );
+        if (product == null) {
+            if (expectedVersion != null && productRepository.existsById(productDTO.getId())) {
+                throw new OptimisticLockingFailureException(
+                        "Product " + productDTO.getId() + " was updated since version " + expectedVersion
+                );
+            }
+            return Optional.empty();
+        }
+        inventoryService.setStock(product.getId(), productDTO.getStock());
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
+        return Optional.of(withStock(productMapper.toDto(product)));
+    }
 
-                    return existingProduct;
-                })
-                .map(productRepository::save)
-                .map(productMapper::toDto);
+    /**
+     * @return the criteria matching a product at a version; products never updated have no version yet.
+     */
+    private static Criteria versionCriteria(String id, long version) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (version == 0) {
+            return criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false));
+        }
+        return criteria.and("version").is(version);
     }
 
     /**
@@ -92,7 +278,21 @@ public class ProductService {
      */
     public Page<ProductDTO> findAll(Pageable pageable) {
         LOG.debug("Request to get all Products");
-        return productRepository.findAll(pageable).map(productMapper::toDto);
+        return withStock(productCache.findAll(pageable).map(productMapper::toDto));
+    }
+
+    /**
+     * Get a page of products as cards. Cached pages are mapped from memory, other pages only read the card fields.
+     *
+     * @param pageable the pagination information.
+     * @return the page of cards.
+     */
+    public Page<ProductCardDTO> findAllCards(Pageable pageable) {
+        LOG.debug("Request to get all Product cards");
+        if (productCache.isCached(pageable)) {
+            return withCardStock(productCache.findAll(pageable).map(productCardMapper::toDto));
+        }
+        return findCards(new Query(), pageable);
     }
 
     /**
@@ -103,7 +303,138 @@ public class ProductService {
      */
     public Optional<ProductDTO> findOne(String id) {
         LOG.debug("Request to get Product : {}", id);
-        return productRepository.findById(id).map(productMapper::toDto);
+        return productCache.findById(id).map(productMapper::toDto).map(this::withStock);
+    }
+
+    /**
+     * Get several products by id with a single query for the ones not already cached.
+     *
+     * @param ids the ids of the entities, duplicates are ignored.
+     * @return the entities in request order and the ids that were not found.
+     */
+    public ProductBatchDTO findAllById(List<String> ids) {
+        LOG.debug("Request to get Products : {}", ids);
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        Map<String, Product> found = productCache.findAllById(uniqueIds);
+
+        ProductBatchDTO batch = new ProductBatchDTO();
+        for (String id : uniqueIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                batch.getProducts().add(productMapper.toDto(product));
+            } else {
+                batch.getMissingIds().add(id);
+            }
+        }
+        inventoryService.joinStock(batch.getProducts(), ProductDTO::getId, ProductDTO::setStock);
+        return batch;
+    }
+
+    /**
+     * Get the trending products, ranked from the in-memory popularity index.
+     *
+     * @param category the category to rank, or {@code null} for the whole catalog.
+     * @param limit    the maximum number of products to return.
+     * @return the trending products as cards, most popular first.
+     */
+    public List<ProductCardDTO> findTrending(String category, int limit) {
+        LOG.debug("Request to get trending Products : {}", category);
+        List<String> ids = trendingIndex.top(category, limit);
+        Map<String, Product> products = productCache.findAllById(ids);
+        return withCardStock(ids.stream().map(products::get).filter(Objects::nonNull).map(productCardMapper::toDto).toList());
+    }
+
+    /**
+     * Get the products whose content is most similar to a product, from the in-memory similarity index.
+     *
+     * @param id    the id of the product.
+     * @param limit the maximum number of products to return.
+     * @return the similar products as cards, most similar first.
+     */
+    public List<ProductCardDTO> findSimilar(String id, int limit) {
+        LOG.debug("Request to get Products similar to : {}", id);
+        List<String> ids = similarityIndex.similar(id, limit);
+        Map<String, Product> products = productCache.findAllById(ids);
+        return withCardStock(ids.stream().map(products::get).filter(Objects::nonNull).map(productCardMapper::toDto).toList());
+    }
+
+    /**
+     * Get the recent engagement of a product from the in-memory counters.
+     *
+     * @param id      the id of the product.
+     * @param minutes the number of minutes to look back.
+     * @return the number of activities per action over the last {@code minutes}.
+     */
+    public ProductEngagementDTO findEngagement(String id, int minutes) {
+        LOG.debug("Request to get Product engagement : {}", id);
+        if (minutes < 1 || minutes > engagementIndex.getWindowMinutes()) {
+            throw new BadRequestException("minutes must be between 1 and " + engagementIndex.getWindowMinutes());
+        }
+        ProductEngagementDTO engagement = new ProductEngagementDTO();
+        engagement.setProductId(id);
+        engagement.setMinutes(minutes);
+        engagement.setCounts(engagementIndex.counts(id, minutes));
+        return engagement;
+    }
+
+    /**
+     * Get typeahead suggestions from the in-memory suggest index.
+     *
+     * @param prefix the text typed so far.
+     * @param limit  the maximum number of suggestions to return.
+     * @return the matching product names, brands and tags, most popular first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Get one product by id with its entity tag, derived from its id, last modification date and stock. The product
+     * comes from the cache and its stock is read once for both; the product is only mapped when the body is taken, so
+     * a request answered with {@code 304} does not pay for it.
+     *
+     * @param id the id of the entity.
+     * @return the entity and its strong entity tag, or empty if the product does not exist.
+     */
+    public Optional<Tagged<ProductDTO>> findOneTagged(String id) {
+        LOG.debug("Request to get Product : {}", id);
+        return productCache.findById(id).map(product -> {
+            Integer stock = inventoryService.findStock(id);
+            return new Tagged<>("\"" + product.getId() + "-" + versionOf(product) + "-" + stock + "\"", () -> {
+                ProductDTO productDTO = productMapper.toDto(product);
+                productDTO.setStock(stock);
+                return productDTO;
+            });
+        });
+    }
+
+    /**
+     * Get a page of products with its entity tag, derived from the page total and the version and stock of every
+     * product on it. The page is read once for both, so pages past the cached ones cost a single query; the products
+     * are only mapped when the body is taken.
+     *
+     * @param pageable the pagination information.
+     * @return the page of entities and its strong entity tag.
+     */
+    public Tagged<Page<ProductDTO>> findAllTagged(Pageable pageable) {
+        LOG.debug("Request to get all Products");
+        Page<Product> page = productCache.findAll(pageable);
+        Map<String, Integer> stock = inventoryService.findStock(page.map(Product::getId).getContent());
+        return new Tagged<>(eTagOf(page, stock), () -> page.map(product -> {
+            ProductDTO productDTO = productMapper.toDto(product);
+            productDTO.setStock(stock.get(product.getId()));
+            return productDTO;
+        }));
+    }
+
+    private static String eTagOf(Page<Product> page, Map<String, Integer> stock) {
+        long hash = fnv1a(FNV_OFFSET_BASIS, Long.toString(page.getTotalElements()));
+        for (Product product : page) {
+            hash = fnv1a(hash, product.getId());
+            hash = fnv1a(hash, versionOf(product));
+            hash = fnv1a(hash, String.valueOf(stock.get(product.getId())));
+        }
+        return "\"" + Long.toHexString(hash) + "\"";
     }
 
     /**
@@ -114,32 +445,348 @@ public class ProductService {
     public void delete(String id) {
         LOG.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        productTombstoneRepository.save(new ProductTombstone(id, Instant.now()));
+        inventoryService.delete(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    /**
+     * Get the live stock of several products from the inventory.
+     *
+     * @param ids the ids of the products.
+     * @return the stock of each product with an inventory record.
+     */
+    public Map<String, Integer> findStock(List<String> ids) {
+        LOG.debug("Request to get Product stock : {}", ids);
+        return inventoryService.findStock(ids);
     }
 
+    /**
+     * Take the quantities of an order out of the inventory, all or nothing. The products themselves are not touched.
+     *
+     * @param productDTOs the order lines, with {@code productId} and {@code qty}.
+     */
     public void reduceStock(List<ProductDTO> productDTOs) {
         LOG.debug("Request to update Product stock : {}", productDTOs);
+        inventoryService.reduceStock(productDTOs);
+    }
 
-        for (ProductDTO productDTO : productDTOs) {
-            Product product = productRepository.findById(productDTO.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found: " + productDTO.getProductId()));
+    private ProductDTO withStock(ProductDTO productDTO) {
+        productDTO.setStock(inventoryService.findStock(productDTO.getId()));
+        return productDTO;
+    }
 
-            if (product.getStock() < productDTO.getQty()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getId());
-            }
+    private Page<ProductDTO> withStock(Page<ProductDTO> page) {
+        inventoryService.joinStock(page.getContent(), ProductDTO::getId, ProductDTO::setStock);
+        return page;
+    }
+
+    private List<ProductCardDTO> withCardStock(List<ProductCardDTO> cards) {
+        return inventoryService.joinStock(cards, ProductCardDTO::getId, ProductCardDTO::setStock);
+    }
 
-            // Deduct stock
-            product.setStock(product.getStock() - productDTO.getQty());
-            productRepository.save(product);
+    private Page<ProductCardDTO> withCardStock(Page<ProductCardDTO> page) {
+        withCardStock(page.getContent());
+        return page;
+    }
+
+    /**
+     * A response body with its entity tag. The body is built on demand, after the tag was checked against
+     * {@code If-None-Match}.
+     *
+     * @param eTag the strong entity tag of the body.
+     * @param body builds the body.
+     */
+    public record Tagged<T>(String eTag, Supplier<T> body) {}
+
+    private static String versionOf(Product product) {
+        Instant lastModifiedDate = product.getLastModifiedDate();
+        if (lastModifiedDate == null) {
+            // documents written before auditing was enabled carry no modification date
+            return Integer.toHexString(product.toString().hashCode());
+        }
+        return Long.toHexString(lastModifiedDate.toEpochMilli());
+    }
+
+    private static long fnv1a(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
         }
+        return hash;
     }
 
+    /**
+     * Search products by name and price range. When nothing matches the name as typed, the search is retried with
+     * the catalog spellings of its words, so misspelled queries still find products.
+     *
+     * @param name     the name pattern, case-insensitive.
+     * @param minPrice the minimum price, unbounded if {@code null}.
+     * @param maxPrice the maximum price, unbounded if {@code null}.
+     * @param pageable the pagination information.
+     * @return the page of entities.
+     */
     public Page<ProductDTO> searchProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        Query query = new Query().with(pageable);
+        Page<ProductDTO> page = search(searchQuery(name, minPrice, maxPrice), pageable);
+        if (page.getTotalElements() == 0) {
+            return fuzzySearchQuery(name, minPrice, maxPrice).map(query -> search(query, pageable)).orElse(page);
+        }
+        return page;
+    }
+
+    public Page<ProductCardDTO> searchProductCards(String name, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        Page<ProductCardDTO> page = findCards(searchQuery(name, minPrice, maxPrice), pageable);
+        if (page.getTotalElements() == 0) {
+            return fuzzySearchQuery(name, minPrice, maxPrice).map(query -> findCards(query, pageable)).orElse(page);
+        }
+        return page;
+    }
+
+    /**
+     * Search products by name, price range and facet values. With facet values selected the search runs on the
+     * in-memory catalog and facet bitmaps; otherwise it is {@link #searchProducts(String, BigDecimal, BigDecimal, Pageable)}.
+     *
+     * @param name     the name pattern, case-insensitive.
+     * @param minPrice the minimum price, unbounded if {@code null}.
+     * @param maxPrice the maximum price, unbounded if {@code null}.
+     * @param facets   the selected values per facet; a product must carry one of the values of every facet.
+     * @param pageable the pagination information, sortable by {@code name} and {@code price}.
+     * @return the page of entities.
+     */
+    public Page<ProductDTO> searchProducts(
+            String name,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Map<FacetIndex.Facet, List<String>> facets,
+            Pageable pageable
+    ) {
+        if (!hasSelection(facets)) {
+            return searchProducts(name, minPrice, maxPrice, pageable);
+        }
+        return withStock(facetSearch(matchingOrdinals(name, minPrice, maxPrice, facets), pageable).map(productMapper::toDto));
+    }
+
+    public Page<ProductCardDTO> searchProductCards(
+            String name,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Map<FacetIndex.Facet, List<String>> facets,
+            Pageable pageable
+    ) {
+        if (!hasSelection(facets)) {
+            return searchProductCards(name, minPrice, maxPrice, pageable);
+        }
+        return withCardStock(facetSearch(matchingOrdinals(name, minPrice, maxPrice, facets), pageable).map(productCardMapper::toDto));
+    }
+
+    /**
+     * Count the products of a search per category, brand, tag and price bucket.
+     *
+     * @param name         the name pattern, case-insensitive.
+     * @param minPrice     the minimum price, unbounded if {@code null}.
+     * @param maxPrice     the maximum price, unbounded if {@code null}.
+     * @param facets       the selected values per facet.
+     * @param priceBuckets the number of price buckets wanted.
+     * @return the facet counts of the matching products.
+     */
+    public ProductFacetsDTO findFacets(
+            String name,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            Map<FacetIndex.Facet, List<String>> facets,
+            int priceBuckets
+    ) {
+        LOG.debug("Request to get Product facets : {} {}", name, facets);
+        BitSet matches = matchingOrdinals(name, minPrice, maxPrice, facets);
+        ProductFacetsDTO result = new ProductFacetsDTO();
+        result.setTotal(matches.cardinality());
+        result.setCategories(facetIndex.counts(FacetIndex.Facet.CATEGORY, matches));
+        result.setBrands(facetIndex.counts(FacetIndex.Facet.BRAND, matches));
+        result.setTags(facetIndex.counts(FacetIndex.Facet.TAG, matches));
+        result.setPrices(priceIndex.histogram(matches, priceBuckets).stream().map(bucket -> {
+            PriceBucketDTO dto = new PriceBucketDTO();
+            dto.setFrom(PriceIndex.fromCents(bucket.fromCents()));
+            dto.setTo(PriceIndex.fromCents(bucket.toCents()));
+            dto.setCount(bucket.count());
+            return dto;
+        }).toList());
+        return result;
+    }
+
+    /**
+     * Get the category browse tree from memory.
+     *
+     * @return the categories with their product count and brands, largest first.
+     */
+    public List<CategoryDTO> findCategories() {
+        LOG.debug("Request to get Product categories");
+        return categoryTree.categories().stream().map(category -> {
+            CategoryDTO dto = new CategoryDTO();
+            dto.setName(category.name());
+            dto.setCount(category.products());
+            dto.setBrands(category.brands());
+            return dto;
+        }).toList();
+    }
+
+    private static boolean hasSelection(Map<FacetIndex.Facet, List<String>> facets) {
+        return facets != null && facets.values().stream().anyMatch(values -> values != null && !values.isEmpty());
+    }
+
+    /**
+     * @return the ordinals of the products matching the facets, the price range and the name, retried with the
+     * catalog spellings of the name when it matches nothing as typed.
+     */
+    private BitSet matchingOrdinals(String name, BigDecimal minPrice, BigDecimal maxPrice, Map<FacetIndex.Facet, List<String>> facets) {
+        BitSet candidates = facetIndex.filter(facets == null ? Map.of() : facets);
+        if (minPrice != null || maxPrice != null) {
+            candidates.and(priceIndex.range(minPrice, maxPrice));
+        }
+        if (name == null || name.isEmpty()) {
+            return candidates;
+        }
+
+        Pattern namePattern = namePattern(name);
+        BitSet matches = (BitSet) candidates.clone();
+        retain(matches, entry -> entry.getName() != null && namePattern.matcher(entry.getName()).find());
+        if (matches.isEmpty()) {
+            Optional<List<Pattern>> spellings = fuzzyNamePatterns(name)
+                    .map(patterns -> patterns.stream().map(pattern -> Pattern.compile(pattern, Pattern.CASE_INSENSITIVE)).toList());
+            if (spellings.isPresent()) {
+                retain(candidates, entry -> entry.getName() != null
+                        && spellings.get().stream().allMatch(pattern -> pattern.matcher(entry.getName()).find()));
+                return candidates;
+            }
+        }
+        return matches;
+    }
+
+    private void retain(BitSet ordinals, Predicate<CatalogEntry> predicate) {
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            CatalogEntry entry = catalogIndex.get(ordinal);
+            if (entry == null || !predicate.test(entry)) {
+                ordinals.clear(ordinal);
+            }
+        }
+    }
+
+    private static Pattern namePattern(String name) {
+        try {
+            return Pattern.compile(name, Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            return Pattern.compile(Pattern.quote(name), Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    private Page<Product> facetSearch(BitSet matches, Pageable pageable) {
+        List<CatalogEntry> entries = new ArrayList<>(matches.cardinality());
+        matches.stream().mapToObj(catalogIndex::get).filter(Objects::nonNull).forEach(entries::add);
+        Comparator<CatalogEntry> order = catalogOrder(pageable.getSort());
+        if (order != null) {
+            entries.sort(order);
+        }
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), entries.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), entries.size()) : entries.size();
+        List<String> ids = entries.subList(from, to).stream().map(CatalogEntry::getId).toList();
+        Map<String, Product> products = productCache.findAllById(ids);
+        List<Product> content = ids.stream().map(products::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, entries.size());
+    }
+
+    /**
+     * @return the in-memory equivalent of the {@code name} and {@code price} orders of {@code sort}, or {@code null}
+     * to keep catalog order.
+     */
+    private static Comparator<CatalogEntry> catalogOrder(Sort sort) {
+        Comparator<CatalogEntry> order = null;
+        for (Sort.Order property : sort) {
+            Comparator<CatalogEntry> comparator = switch (property.getProperty()) {
+                case "name" -> Comparator.comparing(CatalogEntry::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+                case "price" -> Comparator.comparing(CatalogEntry::getPrice, Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()));
+                default -> null;
+            };
+            if (comparator != null) {
+                comparator = property.isDescending() ? comparator.reversed() : comparator;
+                order = order == null ? comparator : order.thenComparing(comparator);
+            }
+        }
+        return order;
+    }
+
+    private Page<ProductDTO> search(Query criteria, Pageable pageable) {
+        Query query = Query.of(criteria).with(pageable);
+
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        long total = mongoTemplate.count(Query.of(criteria), Product.class);
+
+        List<ProductDTO> dtos = inventoryService.joinStock(products.stream().map(productMapper::toDto).toList(), ProductDTO::getId, ProductDTO::setStock);
+        return new PageImpl<>(dtos, pageable, total);
+    }
+
+    private Page<ProductCardDTO> findCards(Query criteria, Pageable pageable) {
+        Query query = Query.of(criteria).with(pageable);
+        query.fields().include(CARD_FIELDS);
+
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        long total = mongoTemplate.count(Query.of(criteria), Product.class);
+
+        return new PageImpl<>(withCardStock(productCardMapper.toDto(products)), pageable, total);
+    }
+
+    /**
+     * @return the query of {@link #searchProducts(String, BigDecimal, BigDecimal, Pageable)} for the name as typed.
+     */
+    Query searchQuery(String name, BigDecimal minPrice, BigDecimal maxPrice) {
+        Query query = priceQuery(minPrice, maxPrice);
 
         if (name != null && !name.isEmpty()) {
             query.addCriteria(Criteria.where("name").regex(name, "i"));
         }
 
+        return query;
+    }
+
+    /**
+     * @return a query matching names that contain, for every word of {@code name}, one of its catalog spellings,
+     * or empty if the spellings cannot change the result.
+     */
+    Optional<Query> fuzzySearchQuery(String name, BigDecimal minPrice, BigDecimal maxPrice) {
+        return fuzzyNamePatterns(name).map(patterns -> priceQuery(minPrice, maxPrice).addCriteria(new Criteria().andOperator(
+                patterns.stream().map(pattern -> Criteria.where("name").regex(pattern, "i")).toList()
+        )));
+    }
+
+    /**
+     * @return for every word of {@code name}, a pattern matching any of its catalog spellings,
+     * or empty if the spellings cannot change the result.
+     */
+    private Optional<List<String>> fuzzyNamePatterns(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        List<String> words = SpellingIndex.tokenize(name);
+        List<List<String>> spellings = spellingIndex.spellings(name);
+        boolean corrected = false;
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < spellings.size(); i++) {
+            List<String> alternatives = spellings.get(i);
+            if (alternatives.isEmpty()) {
+                return Optional.empty();
+            }
+            corrected |= !alternatives.equals(List.of(words.get(i)));
+            patterns.add(alternatives.stream().map(Pattern::quote).collect(Collectors.joining("|")));
+        }
+        if (!corrected) {
+            return Optional.empty();
+        }
+        LOG.debug("Retrying search for '{}' with spellings {}", name, spellings);
+        return Optional.of(patterns);
+    }
+
+    private static Query priceQuery(BigDecimal minPrice, BigDecimal maxPrice) {
+        Query query = new Query();
+
         if (minPrice != null && maxPrice != null) {
             query.addCriteria(Criteria.where("price").gte(minPrice).lte(maxPrice));
         } else if (minPrice != null) {
@@ -148,10 +795,6 @@ public class ProductService {
             query.addCriteria(Criteria.where("price").lte(maxPrice));
         }
 
-        List<Product> products = mongoTemplate.find(query, Product.class);
-        long total = mongoTemplate.count(Query.of(query).limit(-1).skip(-1), Product.class);
-
-        List<ProductDTO> dtos = products.stream().map(productMapper::toDto).toList();
-        return new PageImpl<>(dtos, pageable, total);
+        return query;
     }
 }
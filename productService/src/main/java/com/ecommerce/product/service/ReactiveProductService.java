@@ -0,0 +1,150 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Inventory;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.repository.ReactiveProductRepository;
+import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Non-blocking read side of {@link ProductService}, on the reactive MongoDB driver.
+ * <p>
+ * Results are streamed from the cursor with backpressure: documents are only fetched as fast as the subscriber
+ * requests them, and no request thread waits on the database. The stock is joined from the {@link Inventory} per batch
+ * of {@value #STOCK_BATCH_SIZE} products. Writes and the in-memory caches stay with {@link ProductService}.
+ */
+@Service
+public class ReactiveProductService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveProductService.class);
+
+    /**
+     * Products whose stock is read from the inventory with one query.
+     */
+    private static final int STOCK_BATCH_SIZE = 100;
+
+    private final ReactiveProductRepository reactiveProductRepository;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final ProductMapper productMapper;
+
+    private final ProductService productService;
+
+    private final RecommendationCache recommendationCache;
+
+    private final int recommendationSize;
+
+    public ReactiveProductService(
+            ReactiveProductRepository reactiveProductRepository,
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            ProductMapper productMapper,
+            ProductService productService,
+            RecommendationCache recommendationCache,
+            ApplicationProperties applicationProperties
+    ) {
+        this.reactiveProductRepository = reactiveProductRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.productMapper = productMapper;
+        this.productService = productService;
+        this.recommendationCache = recommendationCache;
+        this.recommendationSize = applicationProperties.getRecommendation().getSize();
+    }
+
+    /**
+     * Stream the whole catalog.
+     *
+     * @param sort the order of the products.
+     * @return the entities.
+     */
+    public Flux<ProductDTO> findAll(Sort sort) {
+        LOG.debug("Request to stream all Products");
+        return withStock(reactiveMongoTemplate.find(new Query().with(sort), Product.class).map(productMapper::toDto));
+    }
+
+    /**
+     * Stream a page of products.
+     *
+     * @param pageable the pagination information.
+     * @return the entities of the page.
+     */
+    public Flux<ProductDTO> findAll(Pageable pageable) {
+        LOG.debug("Request to stream a page of Products");
+        return withStock(reactiveMongoTemplate.find(new Query().with(pageable), Product.class).map(productMapper::toDto));
+    }
+
+    /**
+     * Get one product by id.
+     *
+     * @param id the id of the entity.
+     * @return the entity, or empty if it does not exist.
+     */
+    public Mono<ProductDTO> findOne(String id) {
+        LOG.debug("Request to get Product : {}", id);
+        return withStock(reactiveProductRepository.findById(id).map(productMapper::toDto).flux()).next();
+    }
+
+    /**
+     * Stream a page of search results, retried with the catalog spellings of the name when nothing matches it as typed.
+     *
+     * @param name     the name pattern, case-insensitive.
+     * @param minPrice the minimum price, unbounded if {@code null}.
+     * @param maxPrice the maximum price, unbounded if {@code null}.
+     * @param pageable the pagination information.
+     * @return the entities of the page.
+     */
+    public Flux<ProductDTO> searchProducts(String name, BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        LOG.debug("Request to stream searched Products : {}", name);
+        return withStock(reactiveMongoTemplate.find(productService.searchQuery(name, minPrice, maxPrice).with(pageable), Product.class)
+                .switchIfEmpty(Flux.defer(() -> productService.fuzzySearchQuery(name, minPrice, maxPrice)
+                        .map(query -> reactiveMongoTemplate.find(query.with(pageable), Product.class))
+                        .orElseGet(Flux::empty)))
+                .map(productMapper::toDto));
+    }
+
+    /**
+     * Get the products recommended to a user from the cached co-occurrence recommendations.
+     *
+     * @param userId the id of the user.
+     * @return the recommended entities, best first.
+     */
+    public Flux<ProductDTO> getRecommendedProducts(String userId) {
+        LOG.debug("Request to stream recommended Products : {}", userId);
+        List<String> productIds = recommendationCache.get(userId);
+        return withStock(reactiveProductRepository.findAllById(productIds)
+                .collectMap(Product::getId)
+                .flatMapMany(products -> Flux.fromIterable(productIds).filter(products::containsKey).map(products::get))
+                .take(recommendationSize)
+                .map(productMapper::toDto));
+    }
+
+    /**
+     * Set the stock of the products from the inventory, one query per batch, keeping their order.
+     */
+    private Flux<ProductDTO> withStock(Flux<ProductDTO> products) {
+        return products.buffer(STOCK_BATCH_SIZE).concatMap(batch -> {
+            Query query = new Query(Criteria.where("id").in(batch.stream().map(ProductDTO::getId).toList()));
+            query.fields().include("stock");
+            return reactiveMongoTemplate.find(query, Inventory.class)
+                    .collectMap(Inventory::getId, Inventory::getStock)
+                    .flatMapIterable(stock -> {
+                        batch.forEach(product -> product.setStock(stock.get(product.getId())));
+                        return batch;
+                    });
+        });
+    }
+}
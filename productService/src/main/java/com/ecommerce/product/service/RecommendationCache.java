@@ -0,0 +1,104 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import com.ecommerce.product.service.index.CoOccurrenceIndex;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the recommended product ids of each user.
+ * <p>
+ * Entries expire after {@code application.recommendation.cache-time-to-live}. An activity of a cached user marks the
+ * entry stale; the next read still returns it and starts a reload in the background, so a repeat visit is a map
+ * lookup. Ids rather than products are cached: product changes go through {@link ProductCache} and deleted products
+ * drop out when the ids are resolved. Besides the Caffeine statistics ({@code recommendation} cache), the age of the
+ * stale results served is recorded as {@code recommendation.cache.staleness}.
+ */
+@Component
+public class RecommendationCache {
+
+    private final CoOccurrenceIndex coOccurrenceIndex;
+
+    private final int candidates;
+
+    private final LoadingCache<String, Recommendations> recommendations;
+
+    /**
+     * Cached users with an activity the cached result does not reflect, and when the first such activity was recorded.
+     */
+    private final ConcurrentMap<String, Long> staleSince = new ConcurrentHashMap<>();
+
+    private final Timer staleness;
+
+    public RecommendationCache(CoOccurrenceIndex coOccurrenceIndex, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.coOccurrenceIndex = coOccurrenceIndex;
+        ApplicationProperties.Recommendation properties = applicationProperties.getRecommendation();
+        // ask for a few extra candidates in case some were deleted since they were indexed
+        this.candidates = properties.getSize() * 2;
+        this.recommendations = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getCacheTimeToLive())
+                .evictionListener((String userId, Recommendations value, RemovalCause cause) -> staleSince.remove(userId))
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, recommendations, "recommendation");
+        Gauge.builder("recommendation.cache.hit.ratio", recommendations, cache -> cache.stats().hitRate())
+                .description("Share of recommendation reads served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.cache.stale.users", staleSince, ConcurrentMap::size)
+                .description("Cached users whose recommendations miss a recent activity")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("recommendation.cache.staleness")
+                .description("Time since the first activity a served recommendation did not reflect")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param userId the id of the user.
+     * @return the ids of the recommended products, best first, computed on a miss.
+     */
+    public List<String> get(String userId) {
+        Recommendations cached = recommendations.get(userId);
+        Long since = staleSince.get(userId);
+        if (since != null) {
+            if (since - cached.computedAt() < 0) {
+                staleSince.remove(userId, since);
+            } else {
+                staleness.record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+                // a refresh already running is not started again
+                recommendations.refresh(userId);
+            }
+        }
+        return cached.productIds();
+    }
+
+    @EventListener
+    public void onUserActivityRecorded(UserActivityRecordedEvent event) {
+        if (event.getUserId() != null && recommendations.asMap().containsKey(event.getUserId())) {
+            staleSince.putIfAbsent(event.getUserId(), System.nanoTime());
+        }
+    }
+
+    private Recommendations load(String userId) {
+        long computedAt = System.nanoTime();
+        return new Recommendations(coOccurrenceIndex.recommend(userId, candidates), computedAt);
+    }
+
+    /**
+     * @param computedAt the {@link System#nanoTime()} at which the computation started; later activities are not reflected.
+     */
+    private record Recommendations(List<String> productIds, long computedAt) {}
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.domain.UserActivityDailyRollup;
+import com.ecommerce.product.domain.UserProductActivity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compacts expired raw user activities into daily and per user/product aggregates.
+ * <p>
+ * Rows older than {@code application.activity-retention.retention} are read in batches; each batch is added to
+ * {@link UserActivityDailyRollup} and {@link UserProductActivity} with {@code $inc} upserts, then deleted.
+ * A crash between the two steps recounts at most one batch. Rows whose timestamp a new activity moved past the cutoff
+ * in the meantime are kept, they are rolled up once they expire again.
+ * <p>
+ * Only one replica rolls up at a time: the job holds the {@value #LOCK} {@link ClusterLock lease} for
+ * {@code application.activity-retention.lock-lease}, renewed after every batch.
+ */
+@Service
+public class UserActivityRollupService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserActivityRollupService.class);
+
+    static final String LOCK = "activity-rollup";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ClusterLock clusterLock;
+
+    private final ApplicationProperties.ActivityRetention properties;
+
+    public UserActivityRollupService(MongoTemplate mongoTemplate, ClusterLock clusterLock, ApplicationProperties applicationProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.clusterLock = clusterLock;
+        this.properties = applicationProperties.getActivityRetention();
+    }
+
+    @Scheduled(cron = "${application.activity-retention.cron:0 30 3 * * *}")
+    public void scheduledRollup() {
+        if (properties.isEnabled()) {
+            rollup();
+        }
+    }
+
+    /**
+     * Roll up every raw activity older than the retention period, unless another replica is already doing it.
+     *
+     * @return the number of raw activities compacted.
+     */
+    public long rollup() {
+        if (!clusterLock.tryAcquire(LOCK, properties.getLockLease())) {
+            LOG.debug("Skipping user activity rollup, another replica is running it");
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        long total = 0;
+        try {
+            List<UserActivity> batch;
+            do {
+                Query query = new Query(Criteria.where("timestamp").lt(cutoff))
+                        .with(Sort.by("timestamp"))
+                        .limit(properties.getBatchSize());
+                batch = mongoTemplate.find(query, UserActivity.class);
+                if (!batch.isEmpty()) {
+                    rollup(batch, cutoff);
+                    total += batch.size();
+                }
+                if (!clusterLock.renew(LOCK, properties.getLockLease())) {
+                    LOG.warn("Lost the user activity rollup lease, stopping after {} activities", total);
+                    break;
+                }
+            } while (batch.size() == properties.getBatchSize());
+        } finally {
+            clusterLock.release(LOCK);
+        }
+        LOG.info("Rolled up {} user activities older than {} in {} ms", total, cutoff, System.currentTimeMillis() - start);
+        return total;
+    }
+
+    private void rollup(List<UserActivity> batch, Instant cutoff) {
+        Map<String, Long> dailyCounts = new HashMap<>();
+        Map<String, UserActivity> dailyKeys = new HashMap<>();
+        BulkOperations userProducts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserProductActivity.class);
+        for (UserActivity activity : batch) {
+            LocalDate day = LocalDate.ofInstant(activity.getTimestamp(), ZoneOffset.UTC);
+            String dailyId = UserActivityDailyRollup.idOf(activity.getProductId(), activity.getAction(), day);
+            dailyCounts.merge(dailyId, 1L, Long::sum);
+            dailyKeys.putIfAbsent(dailyId, activity);
+
+            userProducts.upsert(
+                    new Query(Criteria.where("id").is(UserProductActivity.idOf(activity.getUserId1(), activity.getProductId()))),
+                    new Update()
+                            .setOnInsert("userId1", activity.getUserId1())
+                            .setOnInsert("productId", activity.getProductId())
+                            .inc("actions." + activity.getAction(), 1)
+                            .max("lastTimestamp", activity.getTimestamp())
+            );
+        }
+
+        BulkOperations daily = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserActivityDailyRollup.class);
+        dailyCounts.forEach((id, count) -> {
+            UserActivity activity = dailyKeys.get(id);
+            daily.upsert(
+                    new Query(Criteria.where("id").is(id)),
+                    new Update()
+                            .setOnInsert("productId", activity.getProductId())
+                            .setOnInsert("action", activity.getAction())
+                            .setOnInsert("day", LocalDate.ofInstant(activity.getTimestamp(), ZoneOffset.UTC))
+                            .inc("count", count)
+            );
+        });
+
+        daily.execute();
+        userProducts.execute();
+        // a buffered write may have moved a row past the cutoff since it was read: that newer activity is kept
+        mongoTemplate.remove(
+                new Query(Criteria.where("id").in(batch.stream().map(UserActivity::getId).toList()).and("timestamp").lt(cutoff)),
+                UserActivity.class
+        );
+    }
+}
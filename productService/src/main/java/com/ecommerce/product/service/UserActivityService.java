@@ -1,14 +1,30 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.domain.Product;
 import com.ecommerce.product.domain.UserActivity;
-import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.config.ApplicationProperties;
 import com.ecommerce.product.repository.UserActivityRepository;
+import com.ecommerce.product.service.dto.ProductCardDTO;
 import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.dto.UserActivityBatchResultDTO;
 import com.ecommerce.product.service.dto.UserActivityDTO;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import com.ecommerce.product.service.mapper.ProductCardMapper;
 import com.ecommerce.product.service.mapper.ProductMapper;
 import com.ecommerce.product.service.mapper.UserActivityMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -27,20 +43,52 @@ public class UserActivityService {
 
     private final UserActivityMapper userActivityMapper;
 
-    private final ProductRepository productRepository;
+    private final ProductCache productCache;
 
     private final ProductMapper productMapper;
 
+    private final ProductCardMapper productCardMapper;
+
+    private final RecommendationCache recommendationCache;
+
+    private final InventoryService inventoryService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final UserActivityWriteBuffer userActivityWriteBuffer;
+
+    private final Validator validator;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final int recommendationSize;
+
     public UserActivityService(
             UserActivityRepository userActivityRepository,
             UserActivityMapper userActivityMapper,
-            ProductRepository productRepository,
-            ProductMapper productMapper
+            ProductCache productCache,
+            ProductMapper productMapper,
+            ProductCardMapper productCardMapper,
+            RecommendationCache recommendationCache,
+            InventoryService inventoryService,
+            ApplicationEventPublisher eventPublisher,
+            UserActivityWriteBuffer userActivityWriteBuffer,
+            Validator validator,
+            MongoTemplate mongoTemplate,
+            ApplicationProperties applicationProperties
     ) {
         this.userActivityRepository = userActivityRepository;
         this.userActivityMapper = userActivityMapper;
-        this.productRepository = productRepository;
+        this.productCache = productCache;
         this.productMapper = productMapper;
+        this.productCardMapper = productCardMapper;
+        this.recommendationCache = recommendationCache;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
+        this.userActivityWriteBuffer = userActivityWriteBuffer;
+        this.validator = validator;
+        this.mongoTemplate = mongoTemplate;
+        this.recommendationSize = applicationProperties.getRecommendation().getSize();
     }
 
     /**
@@ -53,6 +101,7 @@ public class UserActivityService {
         LOG.debug("Request to save UserActivity : {}", userActivityDTO);
         UserActivity userActivity = userActivityMapper.toEntity(userActivityDTO);
         userActivity = userActivityRepository.save(userActivity);
+        publishRecorded(userActivity);
         return userActivityMapper.toDto(userActivity);
     }
 
@@ -66,27 +115,29 @@ public class UserActivityService {
         LOG.debug("Request to update UserActivity : {}", userActivityDTO);
         UserActivity userActivity = userActivityMapper.toEntity(userActivityDTO);
         userActivity = userActivityRepository.save(userActivity);
+        publishRecorded(userActivity);
         return userActivityMapper.toDto(userActivity);
     }
 
     /**
-     * Partially update a userActivity.
+     * Partially update a userActivity: the non-null fields of the DTO are set in place with a single {@code findAndModify}.
      *
      * @param userActivityDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the userActivity does not exist.
      */
     public Optional<UserActivityDTO> partialUpdate(UserActivityDTO userActivityDTO) {
         LOG.debug("Request to partially update UserActivity : {}", userActivityDTO);
 
-        return userActivityRepository
-                .findById(userActivityDTO.getId())
-                .map(existingUserActivity -> {
-                    userActivityMapper.partialUpdate(existingUserActivity, userActivityDTO);
-
-                    return existingUserActivity;
-                })
-                .map(userActivityRepository::save)
-                .map(userActivityMapper::toDto);
+        UserActivity userActivity = mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(userActivityDTO.getId())),
+                MongoUpdates.setNonNullFields(mongoTemplate.getConverter(), userActivityMapper.toEntity(userActivityDTO)),
+                FindAndModifyOptions.options().returnNew(true),
+                UserActivity.class
+        );
+        return Optional.ofNullable(userActivity).map(updated -> {
+            publishRecorded(updated);
+            return userActivityMapper.toDto(updated);
+        });
     }
 
     /**
@@ -94,9 +145,9 @@ public class UserActivityService {
      *
      * @return the list of entities.
      */
-    public List<UserActivityDTO> findAll() {
-        LOG.debug("Request to get all UserActivities");
-        return userActivityRepository.findAll().stream().map(userActivityMapper::toDto).collect(Collectors.toCollection(LinkedList::new));
+    public Page<UserActivityDTO> findAll(Pageable pageable) {
+        LOG.debug("Request to get a page of UserActivities");
+        return userActivityRepository.findAll(pageable).map(userActivityMapper::toDto);
     }
 
     /**
@@ -120,8 +171,28 @@ public class UserActivityService {
         userActivityRepository.deleteById(id);
     }
 
+    /**
+     * Record a user activity, refreshing the timestamp if the user already did the same action on the product.
+     * <p>
+     * With the write buffer enabled the activity is only queued: the returned DTO has no id yet and the document is
+     * written by the next flush. When the buffer is full the activity is written synchronously instead.
+     *
+     * @param userActivityDTO the activity to record.
+     * @return the recorded activity.
+     */
     public UserActivityDTO saveOrUpdate(UserActivityDTO userActivityDTO) {
         LOG.debug("Request to save or update UserActivity : {}", userActivityDTO);
+        if (userActivityWriteBuffer.isEnabled()) {
+            UserActivity userActivity = userActivityMapper.toEntity(userActivityDTO);
+            userActivity.setId(null);
+            userActivity.setTimestamp(Instant.now());
+            if (userActivityWriteBuffer.add(userActivity)) {
+                publishRecorded(userActivity);
+                return userActivityMapper.toDto(userActivity);
+            }
+            LOG.debug("UserActivity write buffer full, writing synchronously");
+        }
+
         Optional<UserActivity> userActivityOptional = userActivityRepository.findByUserId1AndProductIdAndAction(userActivityDTO.getUserId1(), userActivityDTO.getProductId(), userActivityDTO.getAction());
 
         UserActivity userActivity = null;
@@ -133,39 +204,103 @@ public class UserActivityService {
         }
 
         userActivity = userActivityRepository.save(userActivity);
+        publishRecorded(userActivity);
         return userActivityMapper.toDto(userActivity);
     }
 
-    public List<ProductDTO> getRecommendedProducts(String userId) {
-        // Get products the user has interacted with
-        List<UserActivity> userActivities = userActivityRepository.findByUserId1(userId);
-        Set<String> viewedProductIds = userActivities.stream()
-                .map(UserActivity::getProductId)
-                .collect(Collectors.toSet());
-
-        // Find other users who interacted with the same products
-        Set<String> similarUserIds = new HashSet<>();
-        for (String productId : viewedProductIds) {
-            List<UserActivity> similarUsers = userActivityRepository.findByProductId(productId);
-            for (UserActivity activity : similarUsers) {
-                if (!activity.getUserId1().equals(userId)) {
-                    similarUserIds.add(activity.getUserId1());
+    /**
+     * Record a batch of user activities with a single bulk upsert.
+     * <p>
+     * Each event is validated on its own, events with the same user, product and action are coalesced keeping the
+     * latest timestamp, and the client timestamps are kept so that events queued offline land at the right time.
+     *
+     * @param userActivityDTOs the activities to record.
+     * @return one result per event, in upload order.
+     */
+    public List<UserActivityBatchResultDTO> saveOrUpdateAll(List<UserActivityDTO> userActivityDTOs) {
+        LOG.debug("Request to save or update {} UserActivities", userActivityDTOs.size());
+        UserActivityBatchResultDTO[] results = new UserActivityBatchResultDTO[userActivityDTOs.size()];
+        Map<List<String>, Integer> operationsByKey = new HashMap<>();
+        List<UserActivity> operations = new ArrayList<>();
+        List<List<Integer>> eventsByOperation = new ArrayList<>();
+
+        for (int i = 0; i < userActivityDTOs.size(); i++) {
+            UserActivityDTO userActivityDTO = userActivityDTOs.get(i);
+            Set<ConstraintViolation<UserActivityDTO>> violations = userActivityDTO == null ? Set.of() : validator.validate(userActivityDTO);
+            if (userActivityDTO == null || !violations.isEmpty()) {
+                results[i] = UserActivityBatchResultDTO.rejected(i, userActivityDTO == null ? "event is null" : violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+            UserActivity userActivity = userActivityMapper.toEntity(userActivityDTO);
+            userActivity.setId(null);
+            List<String> key = List.of(userActivity.getUserId1(), userActivity.getProductId(), userActivity.getAction());
+            Integer operation = operationsByKey.get(key);
+            if (operation == null) {
+                operationsByKey.put(key, operations.size());
+                operations.add(userActivity);
+                eventsByOperation.add(new ArrayList<>(List.of(i)));
+            } else {
+                if (userActivity.getTimestamp().isAfter(operations.get(operation).getTimestamp())) {
+                    operations.set(operation, userActivity);
                 }
+                eventsByOperation.get(operation).add(i);
             }
         }
 
-        // Get products viewed by similar users
-        Set<String> recommendedProductIds = new HashSet<>();
-        for (String similarUserId : similarUserIds) {
-            List<UserActivity> similarUserActivities = userActivityRepository.findByUserId1(similarUserId);
-            for (UserActivity activity : similarUserActivities) {
-                if (!viewedProductIds.contains(activity.getProductId())) {
-                    recommendedProductIds.add(activity.getProductId());
+        try {
+            userActivityRepository.upsertAll(operations);
+        } catch (BulkOperationException e) {
+            // unordered bulk write: the other operations were applied
+            for (BulkWriteError error : e.getErrors()) {
+                for (int event : eventsByOperation.get(error.getIndex())) {
+                    results[event] = UserActivityBatchResultDTO.rejected(event, error.getMessage());
                 }
             }
         }
 
-        return productRepository.findAllById(recommendedProductIds).stream()
-                .map(productMapper::toDto).limit(5).collect(Collectors.toCollection(LinkedList::new));
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = UserActivityBatchResultDTO.accepted(i);
+                publishRecorded(userActivityMapper.toEntity(userActivityDTOs.get(i)));
+            }
+        }
+        return List.of(results);
+    }
+
+    private void publishRecorded(UserActivity userActivity) {
+        eventPublisher.publishEvent(new UserActivityRecordedEvent(
+                userActivity.getUserId1(),
+                userActivity.getProductId(),
+                userActivity.getAction(),
+                userActivity.getTimestamp()
+        ));
+    }
+
+    /**
+     * Get the products most often seen together with the ones the user interacted with.
+     *
+     * @param userId the id of the user.
+     * @return the recommended products, best first.
+     */
+    public List<ProductDTO> getRecommendedProducts(String userId) {
+        LOG.debug("Request to get recommended Products : {}", userId);
+        return inventoryService.joinStock(
+                getRecommendedEntities(userId).stream().map(productMapper::toDto).collect(Collectors.toCollection(LinkedList::new)),
+                ProductDTO::getId,
+                ProductDTO::setStock
+        );
+    }
+
+    public List<ProductCardDTO> getRecommendedProductCards(String userId) {
+        LOG.debug("Request to get recommended Product cards : {}", userId);
+        return inventoryService.joinStock(productCardMapper.toDto(getRecommendedEntities(userId)), ProductCardDTO::getId, ProductCardDTO::setStock);
+    }
+
+    private List<Product> getRecommendedEntities(String userId) {
+        List<String> productIds = recommendationCache.get(userId);
+        Map<String, Product> products = productCache.findAllById(productIds);
+        return productIds.stream().map(products::get).filter(Objects::nonNull).limit(recommendationSize).toList();
     }
 }
@@ -0,0 +1,170 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.repository.UserActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Write-behind buffer for user activities.
+ * <p>
+ * Activities are coalesced by (user, product, action), keeping the latest timestamp, and flushed as unordered bulk
+ * upserts every {@code application.activity-buffer.flush-interval}. When the buffer holds {@code capacity} distinct
+ * keys, the calling thread flushes before adding more, which slows producers down instead of growing without bound.
+ * While writes fail, callers do not retry them for a flush interval, and new keys beyond {@code capacity} are dropped
+ * and counted as {@code user_activity.buffer.dropped}: the buffer never grows past its capacity.
+ * Pending activities are drained on shutdown.
+ */
+@Component
+public class UserActivityWriteBuffer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserActivityWriteBuffer.class);
+
+    private final UserActivityRepository userActivityRepository;
+
+    private final ConcurrentMap<Key, UserActivity> pending = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long retryDelayNanos;
+
+    /**
+     * The {@link System#nanoTime()} of the last failed write.
+     */
+    private volatile long failedAt;
+
+    private volatile boolean failing;
+
+    private final Timer flushTimer;
+
+    private final Counter backpressureCounter;
+
+    private final Counter droppedCounter;
+
+    public UserActivityWriteBuffer(
+            UserActivityRepository userActivityRepository,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry
+    ) {
+        this.userActivityRepository = userActivityRepository;
+        ApplicationProperties.ActivityBuffer properties = applicationProperties.getActivityBuffer();
+        this.enabled = properties.isEnabled();
+        this.capacity = properties.getCapacity();
+        this.batchSize = properties.getBatchSize();
+        this.retryDelayNanos = properties.getFlushInterval().toNanos();
+        Gauge.builder("user_activity.buffer.size", pending, Map::size)
+                .description("Activities waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("user_activity.buffer.flush")
+                .description("Time taken to write one batch of buffered activities")
+                .register(meterRegistry);
+        this.backpressureCounter = Counter.builder("user_activity.buffer.backpressure")
+                .description("Times a caller had to flush because the buffer was full")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("user_activity.buffer.dropped")
+                .description("Activities dropped because the buffer was full and could not be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue an activity for writing, replacing any pending activity with the same user, product and action.
+     *
+     * @param userActivity the activity to write.
+     * @return whether the activity was queued; {@code false} if the buffer is full and cannot be written.
+     */
+    public boolean add(UserActivity userActivity) {
+        Key key = new Key(userActivity);
+        if (pending.size() >= capacity && !pending.containsKey(key)) {
+            backpressureCounter.increment();
+            synchronized (this) {
+                if (pending.size() >= capacity && !(failing && System.nanoTime() - failedAt < retryDelayNanos)) {
+                    flush();
+                }
+                if (pending.size() >= capacity && !pending.containsKey(key)) {
+                    droppedCounter.increment();
+                    LOG.debug("Rejecting user activity, the buffer is full : {}", userActivity);
+                    return false;
+                }
+                // inside the lock, so concurrent callers cannot all pass the capacity check
+                pending.merge(key, userActivity, UserActivityWriteBuffer::latest);
+                return true;
+            }
+        }
+        pending.merge(key, userActivity, UserActivityWriteBuffer::latest);
+        return true;
+    }
+
+    /**
+     * Write what is pending at the time of the call, in batches of {@code batch-size}.
+     */
+    @Scheduled(fixedDelayString = "${application.activity-buffer.flush-interval:PT1S}")
+    public synchronized void flush() {
+        int remaining = pending.size();
+        while (remaining > 0) {
+            List<UserActivity> batch = new ArrayList<>(Math.min(batchSize, remaining));
+            Iterator<Key> keys = pending.keySet().iterator();
+            while (keys.hasNext() && batch.size() < batchSize) {
+                UserActivity userActivity = pending.remove(keys.next());
+                if (userActivity != null) {
+                    batch.add(userActivity);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                flushTimer.record(() -> userActivityRepository.upsertAll(batch));
+                failing = false;
+            } catch (RuntimeException e) {
+                LOG.error("Could not write {} buffered user activities, retrying on next flush : {}", batch.size(), e.getMessage());
+                batch.forEach(userActivity -> pending.merge(new Key(userActivity), userActivity, UserActivityWriteBuffer::latest));
+                failedAt = System.nanoTime();
+                failing = true;
+                return;
+            }
+            remaining -= batch.size();
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        LOG.debug("Draining {} buffered user activities", pending.size());
+        flush();
+        if (!pending.isEmpty()) {
+            LOG.error("{} buffered user activities could not be written before shutdown", pending.size());
+        }
+    }
+
+    private static UserActivity latest(UserActivity current, UserActivity candidate) {
+        return candidate.getTimestamp().isAfter(current.getTimestamp()) ? candidate : current;
+    }
+
+    private record Key(String userId, String productId, String action) {
+        Key(UserActivity userActivity) {
+            this(userActivity.getUserId1(), userActivity.getProductId(), userActivity.getAction());
+        }
+    }
+}
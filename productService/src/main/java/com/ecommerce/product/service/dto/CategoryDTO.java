@@ -0,0 +1,52 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO for one category of the {@link com.ecommerce.product.domain.Product} browse tree:
+ * its product count and the product count of each of its brands, largest first.
+ */
+public class CategoryDTO implements Serializable {
+
+    private String name;
+
+    private int count;
+
+    private Map<String, Integer> brands = new LinkedHashMap<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Map<String, Integer> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<String, Integer> brands) {
+        this.brands = brands;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CategoryDTO{" +
+                "name='" + getName() + "'" +
+                ", count=" + getCount() +
+                ", brands=" + getBrands() +
+                "}";
+    }
+}
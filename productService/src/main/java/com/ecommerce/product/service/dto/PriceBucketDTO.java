@@ -0,0 +1,51 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * A DTO for one bucket of a {@link com.ecommerce.product.domain.Product} price histogram:
+ * the number of products priced from {@code from} included to {@code to} excluded.
+ */
+public class PriceBucketDTO implements Serializable {
+
+    private BigDecimal from;
+
+    private BigDecimal to;
+
+    private int count;
+
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    public void setFrom(BigDecimal from) {
+        this.from = from;
+    }
+
+    public BigDecimal getTo() {
+        return to;
+    }
+
+    public void setTo(BigDecimal to) {
+        this.to = to;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PriceBucketDTO{" +
+                "from=" + getFrom() +
+                ", to=" + getTo() +
+                ", count=" + getCount() +
+                "}";
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the result of a multi-get on {@link com.ecommerce.product.domain.Product}.
+ * Products are listed in the order their ids were requested; ids that do not exist are reported in {@code missingIds}.
+ */
+public class ProductBatchDTO implements Serializable {
+
+    private List<ProductDTO> products = new ArrayList<>();
+
+    private List<String> missingIds = new ArrayList<>();
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public List<String> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<String> missingIds) {
+        this.missingIds = missingIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductBatchDTO{" +
+                "products=" + getProducts() +
+                ", missingIds=" + getMissingIds() +
+                "}";
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * A slim DTO for the {@link com.ecommerce.product.domain.Product} entity, carrying only what list screens display.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ProductCardDTO implements Serializable {
+
+    private String id;
+
+    private String name;
+
+    private BigDecimal price;
+
+    private String imageUrl;
+
+    private Integer stock;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProductCardDTO)) {
+            return false;
+        }
+
+        ProductCardDTO productCardDTO = (ProductCardDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, productCardDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductCardDTO{" +
+                "id='" + getId() + "'" +
+                ", name='" + getName() + "'" +
+                ", price=" + getPrice() +
+                ", imageUrl='" + getImageUrl() + "'" +
+                ", stock=" + getStock() +
+                "}";
+    }
+}
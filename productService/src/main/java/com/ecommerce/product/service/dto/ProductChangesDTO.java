@@ -0,0 +1,63 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the {@link com.ecommerce.product.domain.Product} changes after a change token.
+ * Pass {@code nextToken} as {@code since} to get the following changes; {@code hasMore} tells whether some are ready already.
+ */
+public class ProductChangesDTO implements Serializable {
+
+    private List<ProductDTO> updated = new ArrayList<>();
+
+    private List<String> deleted = new ArrayList<>();
+
+    private String nextToken;
+
+    private boolean hasMore;
+
+    public List<ProductDTO> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<ProductDTO> updated) {
+        this.updated = updated;
+    }
+
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<String> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductChangesDTO{" +
+                "updated=" + getUpdated().size() +
+                ", deleted=" + getDeleted().size() +
+                ", nextToken='" + getNextToken() + "'" +
+                ", hasMore=" + isHasMore() +
+                "}";
+    }
+}
@@ -34,6 +34,8 @@ public class ProductDTO implements Serializable {
 
     private String tags;
 
+    private Long version;
+
     private Integer qty;
 
     private String productId;
@@ -110,6 +112,14 @@ public class ProductDTO implements Serializable {
         this.tags = tags;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Integer getQty() {
         return qty;
     }
@@ -160,6 +170,7 @@ public class ProductDTO implements Serializable {
                 ", stock=" + getStock() +
                 ", imageUrl='" + getImageUrl() + "'" +
                 ", tags='" + getTags() + "'" +
+                ", version=" + getVersion() +
                 ", qty='" + getQty() + "'" +
                 ", productId='" + getProductId() + "'" +
                 "}";
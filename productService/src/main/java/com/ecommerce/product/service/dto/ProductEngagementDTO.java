@@ -0,0 +1,52 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A DTO for the recent engagement of a {@link com.ecommerce.product.domain.Product}:
+ * the number of activities per action over the last {@code minutes}.
+ */
+public class ProductEngagementDTO implements Serializable {
+
+    private String productId;
+
+    private int minutes;
+
+    private Map<String, Integer> counts = new LinkedHashMap<>();
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public int getMinutes() {
+        return minutes;
+    }
+
+    public void setMinutes(int minutes) {
+        this.minutes = minutes;
+    }
+
+    public Map<String, Integer> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<String, Integer> counts) {
+        this.counts = counts;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductEngagementDTO{" +
+                "productId='" + getProductId() + "'" +
+                ", minutes=" + getMinutes() +
+                ", counts=" + getCounts() +
+                "}";
+    }
+}
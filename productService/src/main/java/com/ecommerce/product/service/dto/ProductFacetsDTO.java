@@ -0,0 +1,77 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO for the facet counts of a {@link com.ecommerce.product.domain.Product} search.
+ * Each map holds the values present in the result set with their product count, most frequent first;
+ * {@code prices} is the price histogram of the result set.
+ */
+public class ProductFacetsDTO implements Serializable {
+
+    private long total;
+
+    private Map<String, Integer> categories = new LinkedHashMap<>();
+
+    private Map<String, Integer> brands = new LinkedHashMap<>();
+
+    private Map<String, Integer> tags = new LinkedHashMap<>();
+
+    private List<PriceBucketDTO> prices = new ArrayList<>();
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Integer> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Integer> categories) {
+        this.categories = categories;
+    }
+
+    public Map<String, Integer> getBrands() {
+        return brands;
+    }
+
+    public void setBrands(Map<String, Integer> brands) {
+        this.brands = brands;
+    }
+
+    public Map<String, Integer> getTags() {
+        return tags;
+    }
+
+    public void setTags(Map<String, Integer> tags) {
+        this.tags = tags;
+    }
+
+    public List<PriceBucketDTO> getPrices() {
+        return prices;
+    }
+
+    public void setPrices(List<PriceBucketDTO> prices) {
+        this.prices = prices;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductFacetsDTO{" +
+                "total=" + getTotal() +
+                ", categories=" + getCategories() +
+                ", brands=" + getBrands() +
+                ", tags=" + getTags() +
+                ", prices=" + getPrices() +
+                "}";
+    }
+}
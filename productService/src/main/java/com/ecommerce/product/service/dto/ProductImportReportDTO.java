@@ -0,0 +1,84 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the outcome of a bulk {@link com.ecommerce.product.domain.Product} import.
+ * Only the first rejected rows are described in {@code errors}, {@code rejected} counts all of them.
+ */
+public class ProductImportReportDTO implements Serializable {
+
+    private long rows;
+
+    private long imported;
+
+    private long rejected;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private List<String> errors = new ArrayList<>();
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductImportReportDTO{" +
+                "rows=" + getRows() +
+                ", imported=" + getImported() +
+                ", rejected=" + getRejected() +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", rowsPerSecond=" + getRowsPerSecond() +
+                "}";
+    }
+}
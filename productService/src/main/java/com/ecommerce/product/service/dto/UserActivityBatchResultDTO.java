@@ -0,0 +1,67 @@
+package com.ecommerce.product.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Outcome of one event of a {@code POST /user-activities/batch} upload, so the client can drop confirmed events.
+ */
+public class UserActivityBatchResultDTO implements Serializable {
+
+    private int index;
+
+    private boolean accepted;
+
+    private String error;
+
+    public static UserActivityBatchResultDTO accepted(int index) {
+        UserActivityBatchResultDTO result = new UserActivityBatchResultDTO();
+        result.setIndex(index);
+        result.setAccepted(true);
+        return result;
+    }
+
+    public static UserActivityBatchResultDTO rejected(int index, String error) {
+        UserActivityBatchResultDTO result = new UserActivityBatchResultDTO();
+        result.setIndex(index);
+        result.setAccepted(false);
+        result.setError(error);
+        return result;
+    }
+
+    /**
+     * @return the position of the event in the uploaded array.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserActivityBatchResultDTO{" +
+            "index=" + getIndex() +
+            ", accepted=" + isAccepted() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
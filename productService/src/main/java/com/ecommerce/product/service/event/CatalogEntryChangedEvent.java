@@ -0,0 +1,49 @@
+package com.ecommerce.product.service.event;
+
+import com.ecommerce.product.service.index.CatalogEntry;
+
+/**
+ * Published by {@link com.ecommerce.product.service.index.CatalogIndex} when the indexed fields of a product change,
+ * including once per product while the catalog is first loaded.
+ */
+public class CatalogEntryChangedEvent {
+
+    private final int ordinal;
+
+    private final CatalogEntry before;
+
+    private final CatalogEntry after;
+
+    public CatalogEntryChangedEvent(int ordinal, CatalogEntry before, CatalogEntry after) {
+        this.ordinal = ordinal;
+        this.before = before;
+        this.after = after;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return the previous entry, or {@code null} if the product was not indexed yet.
+     */
+    public CatalogEntry getBefore() {
+        return before;
+    }
+
+    /**
+     * @return the new entry, or {@code null} if the product was deleted.
+     */
+    public CatalogEntry getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogEntryChangedEvent{" +
+            "ordinal=" + ordinal +
+            ", before=" + before +
+            ", after=" + after +
+            "}";
+    }
+}
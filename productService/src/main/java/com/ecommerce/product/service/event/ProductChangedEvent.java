@@ -0,0 +1,74 @@
+package com.ecommerce.product.service.event;
+
+import com.ecommerce.product.domain.Product;
+
+/**
+ * Published whenever a {@link Product} is created, updated or deleted, either by this node or,
+ * when the change stream is enabled, by another replica.
+ */
+public class ProductChangedEvent {
+
+    private final String productId;
+
+    private final Product product;
+
+    private final boolean remote;
+
+    public ProductChangedEvent(String productId, Product product) {
+        this(productId, product, false);
+    }
+
+    private ProductChangedEvent(String productId, Product product, boolean remote) {
+        this.productId = productId;
+        this.product = product;
+        this.remote = remote;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(String productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @param product   the new state of the product, or {@code null} if it was deleted.
+     * @return the event of a change read from the change stream.
+     */
+    public static ProductChangedEvent remote(String productId, Product product) {
+        return new ProductChangedEvent(productId, product, true);
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return the new state of the product, or {@code null} if it was deleted.
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+
+    /**
+     * @return whether the change was read from the change stream rather than made by this node.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+            "productId='" + productId + "'" +
+            ", deleted=" + isDeleted() +
+            ", remote=" + isRemote() +
+            "}";
+    }
+}
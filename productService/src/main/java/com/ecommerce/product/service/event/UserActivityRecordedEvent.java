@@ -0,0 +1,70 @@
+package com.ecommerce.product.service.event;
+
+import java.time.Instant;
+
+/**
+ * Published whenever a user activity (view, add to cart, purchase...) is recorded, on this node or, when the activity
+ * change stream is enabled, on another replica.
+ */
+public class UserActivityRecordedEvent {
+
+    private final String userId;
+
+    private final String productId;
+
+    private final String action;
+
+    private final Instant timestamp;
+
+    private final boolean remote;
+
+    public UserActivityRecordedEvent(String userId, String productId, String action, Instant timestamp) {
+        this(userId, productId, action, timestamp, false);
+    }
+
+    private UserActivityRecordedEvent(String userId, String productId, String action, Instant timestamp, boolean remote) {
+        this.userId = userId;
+        this.productId = productId;
+        this.action = action;
+        this.timestamp = timestamp;
+        this.remote = remote;
+    }
+
+    /**
+     * @return an event for an activity recorded by another replica, received through the change stream.
+     */
+    public static UserActivityRecordedEvent remote(String userId, String productId, String action, Instant timestamp) {
+        return new UserActivityRecordedEvent(userId, productId, action, timestamp, true);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "UserActivityRecordedEvent{" +
+            "userId='" + userId + "'" +
+            ", productId='" + productId + "'" +
+            ", action='" + action + "'" +
+            ", timestamp='" + timestamp + "'" +
+            ", remote=" + isRemote() +
+            "}";
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.domain.Product;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Immutable copy of the product fields the in-memory indexes work from. The description is left out on purpose.
+ */
+public final class CatalogEntry {
+
+    private final String id;
+
+    private final String name;
+
+    private final String category;
+
+    private final String brand;
+
+    private final String tags;
+
+    private final BigDecimal price;
+
+    public CatalogEntry(String id, String name, String category, String brand, String tags, BigDecimal price) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.brand = brand;
+        this.tags = tags;
+        this.price = price;
+    }
+
+    public static CatalogEntry of(Product product) {
+        return new CatalogEntry(
+            product.getId(),
+            product.getName(),
+            product.getCategory(),
+            product.getBrand(),
+            product.getTags(),
+            product.getPrice()
+        );
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CatalogEntry)) {
+            return false;
+        }
+        CatalogEntry other = (CatalogEntry) o;
+        return Objects.equals(id, other.id) &&
+            Objects.equals(name, other.name) &&
+            Objects.equals(category, other.category) &&
+            Objects.equals(brand, other.brand) &&
+            Objects.equals(tags, other.tags) &&
+            (price == null ? other.price == null : other.price != null && price.compareTo(other.price) == 0);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, category, brand, tags);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogEntry{" +
+            "id='" + id + "'" +
+            ", name='" + name + "'" +
+            ", category='" + category + "'" +
+            ", brand='" + brand + "'" +
+            ", tags='" + tags + "'" +
+            ", price=" + price +
+            "}";
+    }
+}
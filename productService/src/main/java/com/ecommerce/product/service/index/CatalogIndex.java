@@ -0,0 +1,121 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the indexed product fields, keyed by {@link ProductOrdinals ordinal}.
+ * <p>
+ * Loaded from the product collection at startup and kept current from {@link ProductChangedEvent}s. Every change is
+ * republished as a {@link CatalogEntryChangedEvent} carrying the previous and new entry, which is what the
+ * derived indexes (facets, prices, trending...) maintain themselves from.
+ */
+@Component
+@Order(CatalogIndex.ORDER)
+public class CatalogIndex implements ApplicationRunner {
+
+    /**
+     * Startup order of the catalog load; runners of derived indexes that read the catalog come after it.
+     */
+    public static final int ORDER = 0;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogIndex.class);
+
+    private final ProductOrdinals productOrdinals;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile CatalogEntry[] entries = new CatalogEntry[1024];
+
+    private int count;
+
+    public CatalogIndex(ProductOrdinals productOrdinals, MongoTemplate mongoTemplate, ApplicationEventPublisher eventPublisher) {
+        this.productOrdinals = productOrdinals;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().exclude("description");
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> apply(product.getId(), CatalogEntry.of(product)));
+            LOG.info("Loaded {} products into the catalog index in {} ms", size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the catalog index, it will only contain products written from now on : {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event.getProductId(), event.isDeleted() ? null : CatalogEntry.of(event.getProduct()));
+    }
+
+    /**
+     * @param ordinal the ordinal of the product.
+     * @return the entry of the product, or {@code null} if it is unknown or deleted.
+     */
+    public CatalogEntry get(int ordinal) {
+        CatalogEntry[] current = entries;
+        return ordinal >= 0 && ordinal < current.length ? current[ordinal] : null;
+    }
+
+    /**
+     * @return the number of live products.
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Visit every live product.
+     *
+     * @param action called with each entry and its ordinal.
+     */
+    public void forEach(ObjIntConsumer<CatalogEntry> action) {
+        CatalogEntry[] current = entries;
+        for (int ordinal = 0; ordinal < current.length; ordinal++) {
+            if (current[ordinal] != null) {
+                action.accept(current[ordinal], ordinal);
+            }
+        }
+    }
+
+    private synchronized void apply(String productId, CatalogEntry after) {
+        int ordinal = after != null ? productOrdinals.ordinalOf(productId) : productOrdinals.find(productId);
+        if (ordinal < 0) {
+            return;
+        }
+        if (ordinal >= entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(ordinal + 1, entries.length * 2));
+        }
+        CatalogEntry before = entries[ordinal];
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        entries[ordinal] = after;
+        count += (after != null ? 1 : 0) - (before != null ? 1 : 0);
+        // listeners run on this thread while the lock is held, so they see changes one at a time and in order
+        eventPublisher.publishEvent(new CatalogEntryChangedEvent(ordinal, before, after));
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Live product counts per category and per brand within each category, for catalog browsing.
+ * <p>
+ * Counts move by one on every {@link CatalogEntryChangedEvent}, which covers the catalog load at startup as well as
+ * every write, so the tree is never aggregated from the database. The sorted tree is built on the first read after a
+ * change and shared until the next one. Like {@link FacetIndex}, names are matched case-insensitively and shown with
+ * the spelling first indexed.
+ */
+@Component
+public class CategoryTree {
+
+    private static final Comparator<Count> BY_COUNT = Comparator.<Count>comparingInt(count -> -count.products)
+            .thenComparing(count -> count.label);
+
+    private final Map<String, Count> categories = new HashMap<>();
+
+    private volatile List<Category> tree;
+
+    @EventListener
+    public synchronized void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        CatalogEntry before = event.getBefore();
+        CatalogEntry after = event.getAfter();
+        if (before != null && after != null
+                && Objects.equals(key(before.getCategory()), key(after.getCategory()))
+                && Objects.equals(key(before.getBrand()), key(after.getBrand()))) {
+            return;
+        }
+        if (before != null) {
+            add(before, -1);
+        }
+        if (after != null) {
+            add(after, 1);
+        }
+        tree = null;
+    }
+
+    /**
+     * @return the categories with their product count and the product count of each of their brands, largest first.
+     */
+    public List<Category> categories() {
+        List<Category> current = tree;
+        if (current == null) {
+            current = build();
+        }
+        return current;
+    }
+
+    private synchronized List<Category> build() {
+        if (tree == null) {
+            tree = categories.values().stream()
+                    .sorted(BY_COUNT)
+                    .map(category -> {
+                        Map<String, Integer> brands = new LinkedHashMap<>();
+                        category.brands.values().stream()
+                                .sorted(BY_COUNT)
+                                .forEachOrdered(brand -> brands.put(brand.label, brand.products));
+                        return new Category(category.label, category.products, Collections.unmodifiableMap(brands));
+                    })
+                    .toList();
+        }
+        return tree;
+    }
+
+    private void add(CatalogEntry entry, int delta) {
+        String categoryKey = key(entry.getCategory());
+        if (categoryKey == null) {
+            return;
+        }
+        Count category = categories.computeIfAbsent(categoryKey, key -> new Count(entry.getCategory().trim()));
+        category.products += delta;
+        String brandKey = key(entry.getBrand());
+        if (brandKey != null) {
+            Count brand = category.brands.computeIfAbsent(brandKey, key -> new Count(entry.getBrand().trim()));
+            brand.products += delta;
+            if (brand.products <= 0) {
+                category.brands.remove(brandKey);
+            }
+        }
+        if (category.products <= 0) {
+            categories.remove(categoryKey);
+        }
+    }
+
+    private static String key(String label) {
+        return label == null || label.isBlank() ? null : label.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A category of the browse tree.
+     *
+     * @param name     the category name.
+     * @param products the number of live products in the category.
+     * @param brands   the number of live products of each brand of the category, largest first.
+     */
+    public record Category(String name, int products, Map<String, Integer> brands) {}
+
+    /**
+     * The live products of a category, or of a brand within a category when {@code brands} stays empty.
+     */
+    private static final class Count {
+
+        private final String label;
+
+        private int products;
+
+        private final Map<String, Count> brands = new HashMap<>();
+
+        private Count(String label) {
+            this.label = label;
+        }
+    }
+}
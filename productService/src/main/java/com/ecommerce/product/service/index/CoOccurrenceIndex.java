@@ -0,0 +1,184 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.domain.UserProductActivity;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Item-to-item co-occurrence index: for every product, how many users interacted with it and with each other product.
+ * <p>
+ * Built once at startup from the user_activity collection and its compacted user_product_activity rollups, then
+ * updated incrementally from {@link UserActivityRecordedEvent}s, so a recommendation is a handful of in-memory lookups.
+ * Only products of the catalog are recorded: ordinals are assigned by the {@link CatalogIndex}, which is built first,
+ * and activity on an unknown product id is ignored, so clients cannot grow the ordinal-indexed structures.
+ * <p>
+ * The incremental updates cover the activity this node sees: its own requests, plus those of the other replicas when
+ * {@code application.activity-feed.change-stream-enabled} is on. With the feed off, replicas only converge on restart.
+ */
+@Component
+@Order(CatalogIndex.ORDER + 4)
+public class CoOccurrenceIndex implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CoOccurrenceIndex.class);
+
+    private final ProductOrdinals productOrdinals;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final int maxUserHistory;
+
+    private final ConcurrentMap<String, IntIntHashMap> productsByUser = new ConcurrentHashMap<>();
+
+    private final List<IntIntHashMap> coOccurrences = new ArrayList<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CoOccurrenceIndex(ProductOrdinals productOrdinals, MongoTemplate mongoTemplate, ApplicationProperties applicationProperties) {
+        this.productOrdinals = productOrdinals;
+        this.mongoTemplate = mongoTemplate;
+        this.maxUserHistory = applicationProperties.getRecommendation().getMaxUserHistory();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("user_id_1", "product_id");
+        try (Stream<UserActivity> activities = mongoTemplate.stream(query, UserActivity.class);
+             Stream<UserProductActivity> rollups = mongoTemplate.stream(query, UserProductActivity.class)) {
+            rollups.forEach(rollup -> record(rollup.getUserId1(), rollup.getProductId()));
+            activities.forEach(activity -> record(activity.getUserId1(), activity.getProductId()));
+            LOG.info("Built co-occurrence index for {} users in {} ms", productsByUser.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not build co-occurrence index, recommendations start empty : {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUserActivityRecorded(UserActivityRecordedEvent event) {
+        record(event.getUserId(), event.getProductId());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        int ordinal = productOrdinals.find(event.getProductId());
+        if (ordinal < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            deleted.set(ordinal, event.isDeleted());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that a user interacted with a product. Recording the same pair twice has no effect, and products outside
+     * the catalog are ignored.
+     *
+     * @param userId    the id of the user.
+     * @param productId the id of the product.
+     */
+    public void record(String userId, String productId) {
+        if (userId == null || productId == null) {
+            return;
+        }
+        int ordinal = productOrdinals.find(productId);
+        if (ordinal < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            IntIntHashMap history = productsByUser.computeIfAbsent(userId, id -> new IntIntHashMap());
+            if (history.containsKey(ordinal) || history.size() >= maxUserHistory) {
+                return;
+            }
+            IntIntHashMap neighbours = neighboursOf(ordinal);
+            history.forEach((other, ignored) -> {
+                neighbours.addTo(other, 1);
+                neighboursOf(other).addTo(ordinal, 1);
+            });
+            history.put(ordinal, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank the products most often seen together with the ones the user already interacted with.
+     *
+     * @param userId the id of the user.
+     * @param limit  the maximum number of products to return.
+     * @return the ids of the recommended products, best first.
+     */
+    public List<String> recommend(String userId, int limit) {
+        IntIntHashMap history = productsByUser.get(userId);
+        if (history == null) {
+            return List.of();
+        }
+        PriorityQueue<Long> best = new PriorityQueue<>(limit + 1);
+        lock.readLock().lock();
+        try {
+            IntIntHashMap scores = new IntIntHashMap(history.size() * 8);
+            history.forEach((ordinal, ignored) -> {
+                if (ordinal < coOccurrences.size() && coOccurrences.get(ordinal) != null) {
+                    coOccurrences.get(ordinal).forEach((other, count) -> {
+                        if (!history.containsKey(other) && !deleted.get(other)) {
+                            scores.addTo(other, count);
+                        }
+                    });
+                }
+            });
+            // score in the high bits, ordinal in the low bits, so the heap orders by score
+            scores.forEach((ordinal, score) -> {
+                best.add(((long) score << 32) | ordinal);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        String[] ids = new String[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = productOrdinals.idOf((int) (long) best.poll());
+        }
+        return List.of(ids);
+    }
+
+    private IntIntHashMap neighboursOf(int ordinal) {
+        while (coOccurrences.size() <= ordinal) {
+            coOccurrences.add(null);
+        }
+        IntIntHashMap neighbours = coOccurrences.get(ordinal);
+        if (neighbours == null) {
+            neighbours = new IntIntHashMap();
+            coOccurrences.set(ordinal, neighbours);
+        }
+        return neighbours;
+    }
+}
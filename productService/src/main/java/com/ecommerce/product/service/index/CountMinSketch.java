@@ -0,0 +1,56 @@
+package com.ecommerce.product.service.index;
+
+/**
+ * Count-min sketch over {@code int} keys with {@code double} weights.
+ * <p>
+ * Estimates never undercount; with {@code width} columns the overcount is at most {@code e / width} of the total weight
+ * with probability {@code 1 - e^-depth}. Not thread-safe; callers guard access.
+ */
+public class CountMinSketch {
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C};
+
+    private final double[][] counts;
+
+    private final int mask;
+
+    /**
+     * @param depth number of hash rows, at most 6.
+     * @param width number of counters per row, rounded up to a power of two.
+     */
+    public CountMinSketch(int depth, int width) {
+        int columns = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.counts = new double[Math.min(depth, SEEDS.length)][columns];
+        this.mask = columns - 1;
+    }
+
+    public void add(int key, double weight) {
+        for (int row = 0; row < counts.length; row++) {
+            counts[row][index(row, key)] += weight;
+        }
+    }
+
+    public double estimate(int key) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < counts.length; row++) {
+            estimate = Math.min(estimate, counts[row][index(row, key)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Multiply every counter, used to rescale decayed weights.
+     */
+    public void scale(double factor) {
+        for (double[] row : counts) {
+            for (int column = 0; column < row.length; column++) {
+                row[column] *= factor;
+            }
+        }
+    }
+
+    private int index(int row, int key) {
+        int hash = key * SEEDS[row];
+        return (hash ^ (hash >>> 15)) & mask;
+    }
+}
@@ -0,0 +1,204 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Real-time engagement counters: how many activities of each action a product got in the last minutes.
+ * <p>
+ * Each product with recent activity has one ring of per-minute buckets per action, laid out in a single {@code int[]}
+ * of {@code actions × window} slots; the minute {@code m} lives in slot {@code m % window}. Slots are cleared lazily
+ * when the ring moves forward, so recording is an increment and reading sums at most {@code window} adjacent slots,
+ * whatever the traffic. Rings idle for a whole window are freed, memory follows the products being looked at, not
+ * the catalog. Fed from {@link UserActivityRecordedEvent}s; the busiest products are published as the
+ * {@code product.engagement} gauge.
+ * <p>
+ * The counts only cover the activity this node sees: its own requests, plus those of the other replicas when
+ * {@code application.activity-feed.change-stream-enabled} tails the user activity collection. With the feed off and N
+ * replicas, each one counts about 1/N of the traffic.
+ */
+@Component
+public class EngagementIndex {
+
+    private final ProductOrdinals productOrdinals;
+
+    private final List<String> actions;
+
+    private final Map<String, Integer> actionIndexes = new HashMap<>();
+
+    private final int window;
+
+    private final int gaugedProducts;
+
+    private final MultiGauge gauge;
+
+    private int[][] rings = new int[1024][];
+
+    /**
+     * The minute each ring was last moved to, in minutes since the epoch.
+     */
+    private int[] lastMinutes = new int[1024];
+
+    public EngagementIndex(ProductOrdinals productOrdinals, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Engagement properties = applicationProperties.getEngagement();
+        this.productOrdinals = productOrdinals;
+        this.actions = List.copyOf(properties.getActions());
+        for (int i = 0; i < actions.size(); i++) {
+            actionIndexes.put(actions.get(i), i);
+        }
+        this.window = Math.max(1, (int) properties.getWindow().toMinutes());
+        this.gaugedProducts = properties.getGaugedProducts();
+        this.gauge = MultiGauge.builder("product.engagement")
+                .description("Activities of the most engaged products over the engagement window")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onUserActivityRecorded(UserActivityRecordedEvent event) {
+        record(event.getProductId(), event.getAction(), event.getTimestamp());
+    }
+
+    /**
+     * Count one activity.
+     *
+     * @param productId the id of the product.
+     * @param action    the action, activities whose action is not counted are ignored.
+     * @param timestamp when the activity happened, {@code null} for now; activities older than the window are ignored.
+     */
+    public synchronized void record(String productId, String action, Instant timestamp) {
+        Integer actionIndex = actionIndexes.get(action);
+        if (productId == null || actionIndex == null) {
+            return;
+        }
+        int now = currentMinute();
+        int minute = timestamp == null ? now : (int) Math.min(now, timestamp.getEpochSecond() / 60);
+        int ordinal = productOrdinals.find(productId);
+        if (ordinal < 0 || minute <= now - window) {
+            return;
+        }
+        int[] ring = advance(ordinal, now);
+        ring[actionIndex * window + minute % window]++;
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @param minutes   the number of minutes to look back, capped to the window.
+     * @return the number of activities of each counted action in the last {@code minutes}, in configuration order.
+     */
+    public synchronized Map<String, Integer> counts(String productId, int minutes) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        int ordinal = productOrdinals.find(productId);
+        int[] ring = ordinal >= 0 && ordinal < rings.length ? rings[ordinal] : null;
+        int now = currentMinute();
+        for (int action = 0; action < actions.size(); action++) {
+            counts.put(actions.get(action), ring == null ? 0 : sum(ring, lastMinutes[ordinal], action, now, minutes));
+        }
+        return counts;
+    }
+
+    /**
+     * @return the longest look back served, in minutes.
+     */
+    public int getWindowMinutes() {
+        return window;
+    }
+
+    /**
+     * Free the rings idle for a whole window and publish the counts of the most engaged products per action.
+     */
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void publish() {
+        List<PriorityQueue<long[]>> top = new ArrayList<>(actions.size());
+        for (int action = 0; action < actions.size(); action++) {
+            top.add(new PriorityQueue<>(gaugedProducts + 1, (a, b) -> Long.compare(a[1], b[1])));
+        }
+        synchronized (this) {
+            int now = currentMinute();
+            for (int ordinal = 0; ordinal < rings.length; ordinal++) {
+                if (rings[ordinal] == null) {
+                    continue;
+                }
+                if (now - lastMinutes[ordinal] >= window) {
+                    rings[ordinal] = null;
+                    continue;
+                }
+                for (int action = 0; action < actions.size(); action++) {
+                    int count = sum(rings[ordinal], lastMinutes[ordinal], action, now, window);
+                    PriorityQueue<long[]> best = top.get(action);
+                    if (count > 0 && (best.size() < gaugedProducts || count > best.peek()[1])) {
+                        best.add(new long[] {ordinal, count});
+                        if (best.size() > gaugedProducts) {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (int action = 0; action < actions.size(); action++) {
+            for (long[] entry : top.get(action)) {
+                rows.add(MultiGauge.Row.of(Tags.of("product_id", productOrdinals.idOf((int) entry[0]), "action", actions.get(action)), entry[1]));
+            }
+        }
+        gauge.register(rows, true);
+    }
+
+    /**
+     * Move the ring of a product forward to {@code now}, clearing the minutes it skips.
+     */
+    private int[] advance(int ordinal, int now) {
+        if (ordinal >= rings.length) {
+            int length = Math.max(ordinal + 1, rings.length * 2);
+            rings = Arrays.copyOf(rings, length);
+            lastMinutes = Arrays.copyOf(lastMinutes, length);
+        }
+        int[] ring = rings[ordinal];
+        int last = lastMinutes[ordinal];
+        if (ring == null) {
+            ring = new int[actions.size() * window];
+            rings[ordinal] = ring;
+        } else if (now - last >= window) {
+            Arrays.fill(ring, 0);
+        } else {
+            for (int minute = last + 1; minute <= now; minute++) {
+                for (int action = 0; action < actions.size(); action++) {
+                    ring[action * window + minute % window] = 0;
+                }
+            }
+        }
+        lastMinutes[ordinal] = Math.max(last, now);
+        return ring;
+    }
+
+    /**
+     * Sum the buckets of the minutes {@code (now - minutes, now]} still held by a ring last moved to {@code last}.
+     */
+    private int sum(int[] ring, int last, int action, int now, int minutes) {
+        int from = Math.max(now - Math.min(minutes, window) + 1, last - window + 1);
+        int to = Math.min(now, last);
+        int sum = 0;
+        for (int minute = from; minute <= to; minute++) {
+            sum += ring[action * window + minute % window];
+        }
+        return sum;
+    }
+
+    private static int currentMinute() {
+        return (int) (System.currentTimeMillis() / 60_000);
+    }
+}
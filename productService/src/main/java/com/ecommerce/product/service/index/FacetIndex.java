@@ -0,0 +1,172 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap of product {@link ProductOrdinals ordinals} per category, brand and tag value.
+ * <p>
+ * Ordinals are dense, so a plain {@link BitSet} costs one bit per product and value; filtering is AND across facets
+ * and OR within one, and a facet count is the cardinality of an intersection. Values are matched case-insensitively
+ * and tags are split out of the comma separated {@code tags} field. Maintained from {@link CatalogEntryChangedEvent}s.
+ */
+@Component
+public class FacetIndex {
+
+    public enum Facet {
+        CATEGORY,
+        BRAND,
+        TAG
+    }
+
+    private final Map<Facet, Map<String, Value>> values = new EnumMap<>(Facet.class);
+
+    private final BitSet live = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            values.put(facet, new HashMap<>());
+        }
+    }
+
+    @EventListener
+    public void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        int ordinal = event.getOrdinal();
+        lock.writeLock().lock();
+        try {
+            if (event.getBefore() != null) {
+                valuesOf(event.getBefore()).forEach((facet, labels) -> labels.forEach(label -> clear(facet, label, ordinal)));
+            }
+            if (event.getAfter() != null) {
+                valuesOf(event.getAfter()).forEach((facet, labels) -> labels.forEach(label -> set(facet, label, ordinal)));
+            }
+            live.set(ordinal, event.getAfter() != null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Select the products carrying at least one of the values of every constrained facet.
+     *
+     * @param selected the selected values per facet; a facet absent or with no values is not constrained.
+     * @return a new bitmap of the matching ordinals.
+     */
+    public BitSet filter(Map<Facet, ? extends Collection<String>> selected) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+            selected.forEach((facet, labels) -> {
+                if (labels == null || labels.isEmpty()) {
+                    return;
+                }
+                BitSet any = new BitSet();
+                for (String label : labels) {
+                    Value value = values.get(facet).get(normalize(label));
+                    if (value != null) {
+                        any.or(value.ordinals);
+                    }
+                }
+                result.and(any);
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the products of a result set per value of a facet.
+     *
+     * @param facet  the facet to count.
+     * @param within the result set.
+     * @return the values present in the result set with their product count, most frequent first.
+     */
+    public Map<String, Integer> counts(Facet facet, BitSet within) {
+        Map<String, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Value value : values.get(facet).values()) {
+                if (value.ordinals.intersects(within)) {
+                    BitSet intersection = (BitSet) value.ordinals.clone();
+                    intersection.and(within);
+                    counts.put(value.label, intersection.cardinality());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private void set(Facet facet, String label, int ordinal) {
+        values.get(facet).computeIfAbsent(normalize(label), key -> new Value(label)).ordinals.set(ordinal);
+    }
+
+    private void clear(Facet facet, String label, int ordinal) {
+        Map<String, Value> facetValues = values.get(facet);
+        String key = normalize(label);
+        Value value = facetValues.get(key);
+        if (value != null) {
+            value.ordinals.clear(ordinal);
+            if (value.ordinals.isEmpty()) {
+                facetValues.remove(key);
+            }
+        }
+    }
+
+    private static Map<Facet, Set<String>> valuesOf(CatalogEntry entry) {
+        Map<Facet, Set<String>> labels = new EnumMap<>(Facet.class);
+        labels.put(Facet.CATEGORY, labels(entry.getCategory()));
+        labels.put(Facet.BRAND, labels(entry.getBrand()));
+        Set<String> tags = new LinkedHashSet<>();
+        if (entry.getTags() != null) {
+            for (String tag : entry.getTags().split(",")) {
+                tags.addAll(labels(tag));
+            }
+        }
+        labels.put(Facet.TAG, tags);
+        return labels;
+    }
+
+    private static Set<String> labels(String label) {
+        return label == null || label.isBlank() ? Set.of() : Set.of(label.trim());
+    }
+
+    private static String normalize(String label) {
+        return label.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Value {
+
+        /**
+         * The spelling of the value first indexed, returned in facet counts.
+         */
+        private final String label;
+
+        private final BitSet ordinals = new BitSet();
+
+        private Value(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.product.service.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate top-K keys by weight: a {@link CountMinSketch} estimates every key, and the K best estimates seen so far
+ * are kept as candidates. Memory is bounded by the sketch size plus K, whatever the number of keys.
+ * Not thread-safe; callers guard access.
+ */
+public class HeavyHitters {
+
+    private final CountMinSketch sketch;
+
+    private final int capacity;
+
+    private final IntIntHashMap positions;
+
+    private final int[] keys;
+
+    private final double[] estimates;
+
+    private int size;
+
+    public HeavyHitters(int capacity, CountMinSketch sketch) {
+        this.sketch = sketch;
+        this.capacity = capacity;
+        this.positions = new IntIntHashMap(capacity);
+        this.keys = new int[capacity];
+        this.estimates = new double[capacity];
+    }
+
+    public void add(int key, double weight) {
+        sketch.add(key, weight);
+        double estimate = sketch.estimate(key);
+        if (positions.containsKey(key)) {
+            estimates[positions.get(key)] = estimate;
+        } else if (size < capacity) {
+            insert(size++, key, estimate);
+        } else {
+            int min = minPosition();
+            if (estimate > estimates[min]) {
+                positions.remove(keys[min]);
+                insert(min, key, estimate);
+            }
+        }
+    }
+
+    public void remove(int key) {
+        if (!positions.containsKey(key)) {
+            return;
+        }
+        int position = positions.get(key);
+        positions.remove(key);
+        size--;
+        if (position != size) {
+            insert(position, keys[size], estimates[size]);
+        }
+    }
+
+    public void scale(double factor) {
+        sketch.scale(factor);
+        for (int i = 0; i < size; i++) {
+            estimates[i] *= factor;
+        }
+    }
+
+    /**
+     * @param limit the maximum number of keys to return.
+     * @return the heaviest keys, heaviest first.
+     */
+    public List<Integer> top(int limit) {
+        List<Integer> order = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> Double.compare(estimates[b], estimates[a]));
+        return order.stream().limit(limit).map(position -> keys[position]).toList();
+    }
+
+    private void insert(int position, int key, double estimate) {
+        keys[position] = key;
+        estimates[position] = estimate;
+        positions.put(key, position);
+    }
+
+    private int minPosition() {
+        int min = 0;
+        for (int i = 1; i < size; i++) {
+            if (estimates[i] < estimates[min]) {
+                min = i;
+            }
+        }
+        return min;
+    }
+}
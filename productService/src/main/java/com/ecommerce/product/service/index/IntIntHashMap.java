@@ -0,0 +1,134 @@
+package com.ecommerce.product.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative {@code int} keys to {@code int} values.
+ * <p>
+ * Avoids the boxing and per-entry objects of {@code HashMap<Integer, Integer>}, which matters for indexes
+ * holding one map per product. Not thread-safe; callers guard access.
+ */
+public class IntIntHashMap {
+
+    private static final int FREE = -1;
+
+    private int[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    public IntIntHashMap() {
+        this(4);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[slot(keys, key)] == key;
+    }
+
+    /**
+     * @return the value mapped to the key, or {@code 0} if absent.
+     */
+    public int get(int key) {
+        int slot = slot(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public void put(int key, int value) {
+        int slot = slot(keys, key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                rehash();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Add {@code delta} to the value mapped to the key, starting from {@code 0} if absent.
+     *
+     * @return the new value.
+     */
+    public int addTo(int key, int delta) {
+        int slot = slot(keys, key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    public void remove(int key) {
+        int slot = slot(keys, key);
+        if (keys[slot] != key) {
+            return;
+        }
+        keys[slot] = FREE;
+        size--;
+        // re-insert the rest of the probe chain so lookups do not stop at the hole
+        int mask = keys.length - 1;
+        for (int next = (slot + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int movedKey = keys[next];
+            int movedValue = values[next];
+            keys[next] = FREE;
+            int target = slot(keys, movedKey);
+            keys[target] = movedKey;
+            values[target] = movedValue;
+        }
+    }
+
+    public void forEach(IntIntConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9 >>> 16 ^ key * 0x9E3779B9) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    public interface IntIntConsumer {
+        void accept(int key, int value);
+    }
+}
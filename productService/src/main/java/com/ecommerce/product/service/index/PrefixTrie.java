@@ -0,0 +1,144 @@
+package com.ecommerce.product.service.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Character trie whose nodes cache the best {@code capacity} values stored under them, so a prefix lookup is one walk
+ * of at most {@code maxDepth} nodes and never visits the subtree. Keys longer than {@code maxDepth} are cut, which
+ * bounds memory; callers filter the values of a cut prefix themselves.
+ * <p>
+ * Children are kept in sorted arrays rather than maps. Removing a value may leave a node with fewer than
+ * {@code capacity} values until the trie is rebuilt. Not thread-safe; callers guard access.
+ *
+ * @param <T> the type of the values, ranked by {@code order}; a value must not change rank while stored.
+ */
+public class PrefixTrie<T> {
+
+    private static final char[] NO_LABELS = new char[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final int capacity;
+
+    private final int maxDepth;
+
+    private final Comparator<? super T> order;
+
+    private final Node root = new Node();
+
+    public PrefixTrie(int capacity, int maxDepth, Comparator<? super T> order) {
+        this.capacity = capacity;
+        this.maxDepth = maxDepth;
+        this.order = order;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void add(String key, T value) {
+        Node node = root;
+        int depth = Math.min(key.length(), maxDepth);
+        for (int i = 0; i < depth; i++) {
+            node = node.child(key.charAt(i), true);
+            offer(node, value);
+        }
+    }
+
+    public void remove(String key, T value) {
+        Node node = root;
+        int depth = Math.min(key.length(), maxDepth);
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.child(key.charAt(i), false);
+            if (node != null) {
+                node.remove(value);
+            }
+        }
+    }
+
+    /**
+     * @param prefix the prefix, at most {@link #getMaxDepth()} characters are used.
+     * @return the best values stored under the prefix, best first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> top(String prefix) {
+        Node node = root;
+        int depth = Math.min(prefix.length(), maxDepth);
+        for (int i = 0; i < depth; i++) {
+            node = node.child(prefix.charAt(i), false);
+            if (node == null) {
+                return List.of();
+            }
+        }
+        return (List<T>) Arrays.asList(Arrays.copyOf(node.top, node.size));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void offer(Node node, T value) {
+        for (int i = 0; i < node.size; i++) {
+            if (node.top[i] == value) {
+                return;
+            }
+        }
+        if (node.size == capacity && order.compare(value, (T) node.top[node.size - 1]) >= 0) {
+            return;
+        }
+        if (node.size == node.top.length) {
+            node.top = Arrays.copyOf(node.top, Math.min(capacity, Math.max(2, node.size * 2)));
+        }
+        int position = node.size < capacity ? node.size++ : node.size - 1;
+        while (position > 0 && order.compare(value, (T) node.top[position - 1]) < 0) {
+            node.top[position] = node.top[position - 1];
+            position--;
+        }
+        node.top[position] = value;
+    }
+
+    private static final class Node {
+
+        private char[] labels = NO_LABELS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private Object[] top = NO_VALUES;
+
+        private int size;
+
+        private Node child(char label, boolean create) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            if (!create) {
+                return null;
+            }
+            int insertion = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[labels.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(labels, insertion, newLabels, insertion + 1, labels.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, labels.length - insertion);
+            Node child = new Node();
+            newLabels[insertion] = label;
+            newChildren[insertion] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        private void remove(Object value) {
+            for (int i = 0; i < size; i++) {
+                if (top[i] == value) {
+                    System.arraycopy(top, i + 1, top, i, size - i - 1);
+                    top[--size] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product prices in whole cents, kept sorted alongside their product {@link ProductOrdinals ordinals}.
+ * <p>
+ * A price range is two binary searches and a bitmap of the ordinals in between; a histogram walks the ordinals of a
+ * result set through the per-ordinal price column. A price change moves one element of the sorted arrays.
+ * Maintained from {@link CatalogEntryChangedEvent}s.
+ */
+@Component
+public class PriceIndex {
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    /**
+     * Prices are clamped to plus or minus this many cents, far beyond any real price, so that bucket arithmetic cannot
+     * overflow and huge query bounds are accepted.
+     */
+    private static final long MAX_CENTS = 1_000_000_000_000_000L;
+
+    private static final BigDecimal MAX_PRICE = fromCents(MAX_CENTS);
+
+    private long[] sortedPrices = new long[1024];
+
+    private int[] sortedOrdinals = new int[1024];
+
+    private int size;
+
+    private long[] priceByOrdinal = filled(1024);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener
+    public void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        int ordinal = event.getOrdinal();
+        long price = event.getAfter() == null ? NO_PRICE : toCents(event.getAfter().getPrice(), RoundingMode.HALF_UP);
+        lock.writeLock().lock();
+        try {
+            if (ordinal >= priceByOrdinal.length) {
+                long[] grown = filled(Math.max(ordinal + 1, priceByOrdinal.length * 2));
+                System.arraycopy(priceByOrdinal, 0, grown, 0, priceByOrdinal.length);
+                priceByOrdinal = grown;
+            }
+            if (priceByOrdinal[ordinal] == price) {
+                return;
+            }
+            if (priceByOrdinal[ordinal] != NO_PRICE) {
+                remove(priceByOrdinal[ordinal], ordinal);
+            }
+            if (price != NO_PRICE) {
+                insert(price, ordinal);
+            }
+            priceByOrdinal[ordinal] = price;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param minPrice the minimum price, inclusive, or {@code null} for no minimum.
+     * @param maxPrice the maximum price, inclusive, or {@code null} for no maximum.
+     * @return a new bitmap of the ordinals of the products priced within the range.
+     */
+    public BitSet range(BigDecimal minPrice, BigDecimal maxPrice) {
+        long min = minPrice == null ? Long.MIN_VALUE + 1 : toCents(minPrice, RoundingMode.CEILING);
+        long max = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+        BitSet result = new BitSet();
+        lock.readLock().lock();
+        try {
+            for (int i = lowerBound(min); i < size && sortedPrices[i] <= max; i++) {
+                result.set(sortedOrdinals[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Bucket the prices of a result set into about {@code buckets} ranges of a round width (1, 2 or 5 times a power
+     * of ten cents).
+     *
+     * @param within  the result set.
+     * @param buckets the number of buckets wanted; alignment on round bounds may add one.
+     * @return the buckets in price order, empty if no product of the result set has a price.
+     */
+    public List<Bucket> histogram(BitSet within, int buckets) {
+        lock.readLock().lock();
+        try {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int ordinal = within.nextSetBit(0); ordinal >= 0 && ordinal < priceByOrdinal.length; ordinal = within.nextSetBit(ordinal + 1)) {
+                long price = priceByOrdinal[ordinal];
+                if (price != NO_PRICE) {
+                    min = Math.min(min, price);
+                    max = Math.max(max, price);
+                }
+            }
+            if (min > max) {
+                return List.of();
+            }
+
+            long width = roundWidth((max - min) / Math.max(1, buckets) + 1);
+            long start = Math.floorDiv(min, width) * width;
+            int count = (int) ((max - start) / width) + 1;
+            int[] counts = new int[count];
+            for (int ordinal = within.nextSetBit(0); ordinal >= 0 && ordinal < priceByOrdinal.length; ordinal = within.nextSetBit(ordinal + 1)) {
+                long price = priceByOrdinal[ordinal];
+                if (price != NO_PRICE) {
+                    counts[(int) ((price - start) / width)]++;
+                }
+            }
+            List<Bucket> histogram = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                histogram.add(new Bucket(start + i * width, start + (i + 1) * width, counts[i]));
+            }
+            return histogram;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        if (price == null) {
+            return NO_PRICE;
+        }
+        // compared before scaling, which would allocate all the digits of a huge exponent
+        if (price.compareTo(MAX_PRICE) > 0) {
+            return MAX_CENTS;
+        }
+        if (price.compareTo(MAX_PRICE.negate()) < 0) {
+            return -MAX_CENTS;
+        }
+        return price.movePointRight(2).setScale(0, roundingMode).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * @return the smallest of 1, 2 or 5 times a power of ten that is at least {@code width}.
+     */
+    private static long roundWidth(long width) {
+        long power = 1;
+        while (true) {
+            for (long step : new long[] {1, 2, 5}) {
+                if (step * power >= width) {
+                    return step * power;
+                }
+            }
+            power *= 10;
+        }
+    }
+
+    private void insert(long price, int ordinal) {
+        if (size == sortedPrices.length) {
+            sortedPrices = Arrays.copyOf(sortedPrices, size * 2);
+            sortedOrdinals = Arrays.copyOf(sortedOrdinals, size * 2);
+        }
+        int position = lowerBound(price + 1);
+        System.arraycopy(sortedPrices, position, sortedPrices, position + 1, size - position);
+        System.arraycopy(sortedOrdinals, position, sortedOrdinals, position + 1, size - position);
+        sortedPrices[position] = price;
+        sortedOrdinals[position] = ordinal;
+        size++;
+    }
+
+    private void remove(long price, int ordinal) {
+        for (int i = lowerBound(price); i < size && sortedPrices[i] == price; i++) {
+            if (sortedOrdinals[i] == ordinal) {
+                System.arraycopy(sortedPrices, i + 1, sortedPrices, i, size - i - 1);
+                System.arraycopy(sortedOrdinals, i + 1, sortedOrdinals, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first price not below {@code price}.
+     */
+    private int lowerBound(long price) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedPrices[middle] < price) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A histogram bucket: the products priced from {@code fromCents} included to {@code toCents} excluded.
+     */
+    public record Bucket(long fromCents, long toCents, int count) {}
+
+    private static long[] filled(int length) {
+        long[] prices = new long[length];
+        Arrays.fill(prices, NO_PRICE);
+        return prices;
+    }
+}
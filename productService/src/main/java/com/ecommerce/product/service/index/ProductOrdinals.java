@@ -0,0 +1,65 @@
+package com.ecommerce.product.service.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns every product id a dense {@code int} ordinal, so in-memory indexes can key arrays and primitive maps by product.
+ * Ordinals are never reused, even after the product is deleted, so they are only assigned for products of the catalog;
+ * paths driven by client input, such as user activity, look ordinals up with {@link #find(String)}.
+ */
+@Component
+public class ProductOrdinals {
+
+    private final ConcurrentMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+
+    private volatile String[] ids = new String[1024];
+
+    private int size;
+
+    /**
+     * @param productId the id of the product.
+     * @return the ordinal of the product, assigning a new one if the id was never seen.
+     */
+    public int ordinalOf(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal != null ? ordinal : assign(productId);
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @return the ordinal of the product, or {@code -1} if the id was never seen.
+     */
+    public int find(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public String idOf(int ordinal) {
+        return ids[ordinal];
+    }
+
+    /**
+     * @return the number of ordinals handed out so far, an exclusive upper bound for every ordinal.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized int assign(String productId) {
+        Integer existing = ordinals.get(productId);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int ordinal = size++;
+        ids[ordinal] = productId;
+        ordinals.put(productId, ordinal);
+        return ordinal;
+    }
+}
@@ -0,0 +1,543 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Content-based "similar products": the nearest neighbours of every product by cosine similarity of TF-IDF vectors
+ * over its name, brand, category, tags and description.
+ * <p>
+ * Term counts are kept per product {@link ProductOrdinals ordinal} and updated from {@link ProductChangedEvent}s.
+ * Every {@code application.similarity.refresh-interval} the products that changed get new vectors and the neighbour
+ * lists that may have moved are recomputed: those of the changed products, of the products listing one of them, and
+ * of the products a changed one now scores above the last of their neighbours, since top-K lists are not symmetric.
+ * Other vectors keep the document frequencies they were computed with, so when a large part of the catalog changed,
+ * or every {@code application.similarity.rebuild-interval}, everything is rebuilt with fresh document frequencies. Neighbours are found through an inverted index of the vectors, one product per fork-join subtask, and
+ * the lists are published as a whole, so lookups never wait.
+ * <p>
+ * Terms found in more than {@code max-document-frequency} of the catalog are dropped, they say little about similarity
+ * and their postings would dominate the work; a vector keeps its {@code max-terms} heaviest terms.
+ */
+@Component
+@Order(CatalogIndex.ORDER + 3)
+public class SimilarityIndex implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimilarityIndex.class);
+
+    private static final float NAME_WEIGHT = 3;
+
+    private static final float FACET_WEIGHT = 2;
+
+    private static final float DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Products per fork-join leaf task.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Above this share of changed products, a refresh rebuilds everything instead of patching neighbour lists.
+     */
+    private static final double REBUILD_RATIO = 0.1;
+
+    private final ProductOrdinals productOrdinals;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final int topK;
+
+    private final int maxTerms;
+
+    private final double maxDocumentFrequency;
+
+    private final long rebuildIntervalNanos;
+
+    private final ForkJoinPool pool;
+
+    // term counts, written from events under the lock and copied by refresh()
+    private final Object lock = new Object();
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+
+    private int[] documentFrequency = new int[1024];
+
+    private TermCounts[] documents = new TermCounts[1024];
+
+    private int documentCount;
+
+    private final BitSet changed = new BitSet();
+
+    // owned by refresh()
+    private Vector[] vectors = new Vector[0];
+
+    private volatile Neighbours[] neighbours = new Neighbours[0];
+
+    private long lastRebuild;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(0));
+
+    public SimilarityIndex(ProductOrdinals productOrdinals, MongoTemplate mongoTemplate, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Similarity properties = applicationProperties.getSimilarity();
+        this.productOrdinals = productOrdinals;
+        this.mongoTemplate = mongoTemplate;
+        this.topK = properties.getTopK();
+        this.maxTerms = properties.getMaxTerms();
+        this.maxDocumentFrequency = properties.getMaxDocumentFrequency();
+        this.rebuildIntervalNanos = properties.getRebuildInterval().toNanos();
+        this.pool = new ForkJoinPool(properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("name", "description", "category", "brand", "tags");
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> update(product.getId(), product));
+            LOG.info("Loaded {} products into the similarity index in {} ms", documentCount, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not load the similarity index, it will only contain products written from now on : {}", e.getMessage());
+        }
+        refresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        update(event.getProductId(), event.isDeleted() ? null : event.getProduct());
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @param limit     the maximum number of products to return.
+     * @return the ids of the products most similar to the product, most similar first; empty if the product is unknown.
+     */
+    public List<String> similar(String productId, int limit) {
+        int ordinal = productOrdinals.find(productId);
+        Neighbours[] current = neighbours;
+        if (ordinal < 0 || ordinal >= current.length || current[ordinal] == null) {
+            return List.of();
+        }
+        int[] ordinals = current[ordinal].ordinals();
+        List<String> ids = new ArrayList<>(Math.min(limit, ordinals.length));
+        for (int i = 0; i < ordinals.length && ids.size() < limit; i++) {
+            ids.add(productOrdinals.idOf(ordinals[i]));
+        }
+        return ids;
+    }
+
+    /**
+     * Recompute the vectors of the products changed since the last refresh and the neighbour lists they affect.
+     */
+    @Scheduled(fixedDelayString = "${application.similarity.refresh-interval:PT1M}", initialDelayString = "${application.similarity.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        TermCounts[] counts;
+        int[] frequencies;
+        int total;
+        BitSet dirty;
+        synchronized (lock) {
+            if (changed.isEmpty()) {
+                return;
+            }
+            counts = Arrays.copyOf(documents, documents.length);
+            frequencies = Arrays.copyOf(documentFrequency, documentFrequency.length);
+            total = documentCount;
+            dirty = (BitSet) changed.clone();
+            changed.clear();
+        }
+
+        boolean rebuild = vectors.length == 0
+                || dirty.cardinality() > REBUILD_RATIO * Math.max(1, total)
+                || System.nanoTime() - lastRebuild >= rebuildIntervalNanos;
+        if (rebuild) {
+            dirty.set(0, counts.length);
+            lastRebuild = System.nanoTime();
+        }
+        Vector[] updated = Arrays.copyOf(vectors, counts.length);
+        for (int ordinal = dirty.nextSetBit(0); ordinal >= 0 && ordinal < counts.length; ordinal = dirty.nextSetBit(ordinal + 1)) {
+            updated[ordinal] = vector(counts[ordinal], frequencies, total);
+        }
+        Postings postings = Postings.of(updated, frequencies.length);
+
+        Neighbours[] current = neighbours;
+        Neighbours[] next = Arrays.copyOf(current, counts.length);
+        if (rebuild) {
+            pool.invoke(new NeighboursTask(ordinals(dirty), 0, dirty.cardinality(), updated, postings, next));
+        } else {
+            // lists that named a changed product must be redone whatever its new content
+            BitSet affected = (BitSet) dirty.clone();
+            for (int ordinal = 0; ordinal < current.length; ordinal++) {
+                if (current[ordinal] != null && current[ordinal].containsAny(dirty)) {
+                    affected.set(ordinal);
+                }
+            }
+            int[] changedOrdinals = ordinals(dirty);
+            pool.invoke(new NeighboursTask(changedOrdinals, 0, changedOrdinals.length, updated, postings, next));
+            // a changed product may enter the list of any product it now scores above the last neighbour of,
+            // whether or not that product is among its own neighbours
+            for (int ordinal : changedOrdinals) {
+                if (ordinal < updated.length && updated[ordinal] != null) {
+                    markEntered(ordinal, updated[ordinal], updated.length, postings, next, affected);
+                }
+            }
+            affected.andNot(dirty);
+            int[] affectedOrdinals = ordinals(affected);
+            pool.invoke(new NeighboursTask(affectedOrdinals, 0, affectedOrdinals.length, updated, postings, next));
+            dirty.or(affected);
+        }
+
+        vectors = updated;
+        neighbours = next;
+        LOG.debug("Refreshed {} similar product lists in {} ms{}", dirty.cardinality(), System.currentTimeMillis() - start, rebuild ? " (rebuild)" : "");
+    }
+
+    /**
+     * Mark the products whose neighbour list a product enters: those it shares a term with, whose list is not full or
+     * ends with a lower score than their similarity to the product.
+     */
+    private void markEntered(int ordinal, Vector vector, int size, Postings postings, Neighbours[] lists, BitSet entered) {
+        Scratch buffers = scratch.get();
+        if (buffers.scores.length < size) {
+            buffers = new Scratch(size);
+            scratch.set(buffers);
+        }
+        float[] scores = buffers.scores;
+        int[] touched = buffers.touched;
+        int touchedCount = accumulate(ordinal, vector, postings, scores, touched);
+        for (int i = 0; i < touchedCount; i++) {
+            int other = touched[i];
+            float score = scores[other];
+            scores[other] = 0;
+            Neighbours list = other < lists.length ? lists[other] : null;
+            if (list != null && (list.ordinals().length < topK || score > list.scores()[list.scores().length - 1])) {
+                entered.set(other);
+            }
+        }
+    }
+
+    /**
+     * Accumulate the dot products of a vector with every product sharing a term.
+     *
+     * @return the number of products scored, whose ordinals are the first ones of {@code touched}.
+     */
+    private static int accumulate(int ordinal, Vector vector, Postings postings, float[] scores, int[] touched) {
+        int touchedCount = 0;
+        for (int i = 0; i < vector.terms().length; i++) {
+            int term = vector.terms()[i];
+            float weight = vector.weights()[i];
+            for (int p = postings.offsets[term]; p < postings.offsets[term + 1]; p++) {
+                int other = postings.ordinals[p];
+                if (other != ordinal) {
+                    if (scores[other] == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    scores[other] += weight * postings.weights[p];
+                }
+            }
+        }
+        return touchedCount;
+    }
+
+    private void update(String productId, Product product) {
+        synchronized (lock) {
+            int ordinal = product != null ? productOrdinals.ordinalOf(productId) : productOrdinals.find(productId);
+            if (ordinal < 0) {
+                return;
+            }
+            if (ordinal >= documents.length) {
+                documents = Arrays.copyOf(documents, Math.max(ordinal + 1, documents.length * 2));
+            }
+            TermCounts before = documents[ordinal];
+            TermCounts after = product == null ? null : termCounts(product);
+            if (before == null ? after == null : before.sameAs(after)) {
+                return;
+            }
+            if (before != null) {
+                for (int term : before.terms()) {
+                    documentFrequency[term]--;
+                }
+                documentCount--;
+            }
+            if (after != null) {
+                for (int term : after.terms()) {
+                    documentFrequency[term]++;
+                }
+                documentCount++;
+            }
+            documents[ordinal] = after;
+            changed.set(ordinal);
+        }
+    }
+
+    private TermCounts termCounts(Product product) {
+        Map<String, Float> counts = new HashMap<>();
+        addWords(counts, product.getName(), NAME_WEIGHT);
+        addWords(counts, product.getBrand(), FACET_WEIGHT);
+        addWords(counts, product.getCategory(), FACET_WEIGHT);
+        addWords(counts, product.getTags(), FACET_WEIGHT);
+        addWords(counts, product.getDescription(), DESCRIPTION_WEIGHT);
+        int[] terms = new int[counts.size()];
+        float[] weights = new float[counts.size()];
+        int i = 0;
+        for (Map.Entry<String, Float> entry : counts.entrySet()) {
+            terms[i] = termIds.computeIfAbsent(entry.getKey(), word -> termIds.size());
+            weights[i++] = entry.getValue();
+        }
+        if (termIds.size() > documentFrequency.length) {
+            documentFrequency = Arrays.copyOf(documentFrequency, Math.max(termIds.size(), documentFrequency.length * 2));
+        }
+        return new TermCounts(terms, weights);
+    }
+
+    private static void addWords(Map<String, Float> counts, String text, float weight) {
+        for (String word : SpellingIndex.tokenize(text)) {
+            if (word.length() > 1) {
+                counts.merge(word, weight, Float::sum);
+            }
+        }
+    }
+
+    /**
+     * @return the L2-normalized TF-IDF vector of a product, its heaviest terms first, or {@code null} if it has no useful term.
+     */
+    private Vector vector(TermCounts counts, int[] frequencies, int total) {
+        if (counts == null) {
+            return null;
+        }
+        int length = 0;
+        int[] terms = new int[counts.terms().length];
+        float[] weights = new float[counts.terms().length];
+        for (int i = 0; i < counts.terms().length; i++) {
+            int frequency = frequencies[counts.terms()[i]];
+            if (frequency > 0 && frequency <= Math.max(2, maxDocumentFrequency * total)) {
+                terms[length] = counts.terms()[i];
+                weights[length++] = (float) ((1 + Math.log(counts.weights()[i])) * Math.log(1 + (double) total / frequency));
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+
+        Integer[] order = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        float[] unsorted = weights;
+        Arrays.sort(order, (a, b) -> Float.compare(unsorted[b], unsorted[a]));
+        int kept = Math.min(length, maxTerms);
+        int[] keptTerms = new int[kept];
+        float[] keptWeights = new float[kept];
+        double norm = 0;
+        for (int i = 0; i < kept; i++) {
+            keptTerms[i] = terms[order[i]];
+            keptWeights[i] = weights[order[i]];
+            norm += keptWeights[i] * keptWeights[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < kept; i++) {
+            keptWeights[i] *= scale;
+        }
+        return new Vector(keptTerms, keptWeights);
+    }
+
+    private static int[] ordinals(BitSet set) {
+        return set.stream().toArray();
+    }
+
+    /**
+     * Computes the neighbour lists of a slice of products, splitting it in halves down to {@link #BATCH_SIZE}.
+     */
+    private final class NeighboursTask extends RecursiveAction {
+
+        private final int[] ordinals;
+
+        private final int from;
+
+        private final int to;
+
+        private final Vector[] vectors;
+
+        private final Postings postings;
+
+        private final Neighbours[] result;
+
+        private NeighboursTask(int[] ordinals, int from, int to, Vector[] vectors, Postings postings, Neighbours[] result) {
+            this.ordinals = ordinals;
+            this.from = from;
+            this.to = to;
+            this.vectors = vectors;
+            this.postings = postings;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new NeighboursTask(ordinals, from, middle, vectors, postings, result),
+                        new NeighboursTask(ordinals, middle, to, vectors, postings, result)
+                );
+                return;
+            }
+            Scratch buffers = scratch.get();
+            if (buffers.scores.length < vectors.length) {
+                buffers = new Scratch(vectors.length);
+                scratch.set(buffers);
+            }
+            float[] scores = buffers.scores;
+            int[] touched = buffers.touched;
+            for (int i = from; i < to; i++) {
+                int ordinal = ordinals[i];
+                result[ordinal] = ordinal < vectors.length && vectors[ordinal] != null
+                        ? nearest(ordinal, vectors[ordinal], scores, touched)
+                        : null;
+            }
+        }
+
+        /**
+         * Accumulate the dot products with every product sharing a term, then keep the {@code topK} best.
+         */
+        private Neighbours nearest(int ordinal, Vector vector, float[] scores, int[] touched) {
+            int touchedCount = accumulate(ordinal, vector, postings, scores, touched);
+
+            int[] best = new int[Math.min(topK, touchedCount)];
+            float[] bestScores = new float[best.length];
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int other = touched[i];
+                float score = scores[other];
+                scores[other] = 0;
+                if (size < best.length || score > bestScores[size - 1]) {
+                    // insertion into the short sorted list, dropping the last one when full
+                    int position = size < best.length ? size++ : size - 1;
+                    while (position > 0 && bestScores[position - 1] < score) {
+                        best[position] = best[position - 1];
+                        bestScores[position] = bestScores[position - 1];
+                        position--;
+                    }
+                    best[position] = other;
+                    bestScores[position] = score;
+                }
+            }
+            return new Neighbours(best, bestScores);
+        }
+    }
+
+    /**
+     * Per worker buffers of {@link NeighboursTask}: the scores accumulated by ordinal, which are left zeroed after each
+     * product, and the ordinals scored so far.
+     */
+    private static final class Scratch {
+
+        private final float[] scores;
+
+        private final int[] touched;
+
+        private Scratch(int size) {
+            this.scores = new float[size];
+            this.touched = new int[size];
+        }
+    }
+
+    /**
+     * Weighted term counts of a product, in no particular order.
+     */
+    private record TermCounts(int[] terms, float[] weights) {
+        boolean sameAs(TermCounts other) {
+            return other != null && Arrays.equals(terms, other.terms) && Arrays.equals(weights, other.weights);
+        }
+    }
+
+    /**
+     * A normalized TF-IDF vector, heaviest terms first.
+     */
+    private record Vector(int[] terms, float[] weights) {}
+
+    /**
+     * The nearest products of a product and their cosine similarity, most similar first.
+     */
+    private record Neighbours(int[] ordinals, float[] scores) {
+        boolean containsAny(BitSet set) {
+            for (int ordinal : ordinals) {
+                if (set.get(ordinal)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Inverted index of the vectors: for each term, the products carrying it and its weight in their vector.
+     */
+    private static final class Postings {
+
+        private final int[] offsets;
+
+        private final int[] ordinals;
+
+        private final float[] weights;
+
+        private Postings(int[] offsets, int[] ordinals, float[] weights) {
+            this.offsets = offsets;
+            this.ordinals = ordinals;
+            this.weights = weights;
+        }
+
+        static Postings of(Vector[] vectors, int termCount) {
+            int[] offsets = new int[termCount + 1];
+            for (Vector vector : vectors) {
+                if (vector != null) {
+                    for (int term : vector.terms()) {
+                        offsets[term + 1]++;
+                    }
+                }
+            }
+            for (int term = 0; term < termCount; term++) {
+                offsets[term + 1] += offsets[term];
+            }
+            int[] ordinals = new int[offsets[termCount]];
+            float[] weights = new float[offsets[termCount]];
+            int[] next = Arrays.copyOf(offsets, termCount);
+            for (int ordinal = 0; ordinal < vectors.length; ordinal++) {
+                Vector vector = vectors[ordinal];
+                if (vector != null) {
+                    for (int i = 0; i < vector.terms().length; i++) {
+                        int position = next[vector.terms()[i]]++;
+                        ordinals[position] = ordinal;
+                        weights[position] = vector.weights()[i];
+                    }
+                }
+            }
+            return new Postings(offsets, ordinals, weights);
+        }
+    }
+}
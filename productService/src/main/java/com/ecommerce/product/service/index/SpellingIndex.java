@@ -0,0 +1,235 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Symmetric-deletion spelling dictionary (SymSpell) over the words of product names, brands and tags.
+ * <p>
+ * Every vocabulary word is indexed under all the strings obtained by deleting up to {@code max-edit-distance}
+ * characters from its first {@code prefix-length} characters. A query word generates its own deletions the same way,
+ * so the candidates within the edit distance are found with a few hash lookups and only those are verified with a
+ * real edit distance. The vocabulary is built while the catalog loads and maintained from
+ * {@link CatalogEntryChangedEvent}s.
+ */
+@Component
+public class SpellingIndex {
+
+    private final int maxEditDistance;
+
+    private final int prefixLength;
+
+    private final int maxSpellings;
+
+    /**
+     * Vocabulary word to the number of live products using it.
+     */
+    private final Map<String, Integer> words = new HashMap<>();
+
+    private final Map<String, List<String>> deletions = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public SpellingIndex(ApplicationProperties applicationProperties) {
+        ApplicationProperties.FuzzySearch properties = applicationProperties.getFuzzySearch();
+        this.maxEditDistance = properties.getMaxEditDistance();
+        this.prefixLength = properties.getPrefixLength();
+        this.maxSpellings = properties.getMaxSpellings();
+    }
+
+    @EventListener
+    public void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        Set<String> before = words(event.getBefore());
+        Set<String> after = words(event.getAfter());
+        lock.writeLock().lock();
+        try {
+            before.stream().filter(word -> !after.contains(word)).forEach(this::removeWord);
+            after.stream().filter(word -> !before.contains(word)).forEach(this::addWord);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Look up the vocabulary spellings of every word of a text.
+     *
+     * @param text the text as typed.
+     * @return for each word of {@code text}, the vocabulary words within its edit distance, closest and most used first;
+     * a word of the vocabulary comes first in its own list, a word with no close spelling has an empty list.
+     */
+    public List<List<String>> spellings(String text) {
+        List<List<String>> spellings = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String word : tokenize(text)) {
+                spellings.add(lookup(word));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return spellings;
+    }
+
+    private List<String> lookup(String word) {
+        int distance = maxDistance(word);
+        Map<String, Integer> candidates = new HashMap<>();
+        for (String deletion : deletions(word, distance)) {
+            if (words.containsKey(deletion)) {
+                candidates.putIfAbsent(deletion, -1);
+            }
+            for (String candidate : deletions.getOrDefault(deletion, List.of())) {
+                candidates.putIfAbsent(candidate, -1);
+            }
+        }
+        candidates.replaceAll((candidate, unknown) -> editDistance(word, candidate, distance));
+        candidates.values().removeIf(candidateDistance -> candidateDistance > distance);
+        return candidates.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue)
+                        .thenComparing(entry -> -words.get(entry.getKey()))
+                        .thenComparing(Map.Entry::getKey))
+                .limit(maxSpellings)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void addWord(String word) {
+        if (words.merge(word, 1, Integer::sum) == 1) {
+            for (String deletion : deletions(word, maxEditDistance)) {
+                if (!deletion.equals(word)) {
+                    deletions.computeIfAbsent(deletion, key -> new ArrayList<>(1)).add(word);
+                }
+            }
+        }
+    }
+
+    private void removeWord(String word) {
+        Integer count = words.get(word);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            words.put(word, count - 1);
+            return;
+        }
+        words.remove(word);
+        for (String deletion : deletions(word, maxEditDistance)) {
+            List<String> indexed = deletions.get(deletion);
+            if (indexed != null) {
+                indexed.remove(word);
+                if (indexed.isEmpty()) {
+                    deletions.remove(deletion);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code word} cut to the prefix length, and every string obtained by deleting up to {@code distance} of its characters.
+     */
+    private Set<String> deletions(String word, int distance) {
+        Set<String> result = new HashSet<>();
+        String prefix = word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+        result.add(prefix);
+        List<String> current = List.of(prefix);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String candidate : current) {
+                for (int i = 0; i < candidate.length(); i++) {
+                    String deletion = candidate.substring(0, i) + candidate.substring(i + 1);
+                    if (result.add(deletion)) {
+                        next.add(deletion);
+                    }
+                }
+            }
+            current = next;
+        }
+        return result;
+    }
+
+    /**
+     * Short words tolerate fewer edits, otherwise every two letter word would match every other.
+     */
+    private int maxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return Math.min(maxEditDistance, word.length() <= 5 ? 1 : 2);
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and adjacent transpositions.
+     *
+     * @return the distance, or {@code max + 1} if it exceeds {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static Set<String> words(CatalogEntry entry) {
+        Set<String> words = new HashSet<>();
+        if (entry != null) {
+            words.addAll(tokenize(entry.getName()));
+            words.addAll(tokenize(entry.getBrand()));
+            words.addAll(tokenize(entry.getTags()));
+        }
+        return words;
+    }
+
+    /**
+     * @return the lower-cased words of {@code text}, split on anything but letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
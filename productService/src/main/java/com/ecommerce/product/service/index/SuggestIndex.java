@@ -0,0 +1,226 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Typeahead suggestions over product names, brands and tags.
+ * <p>
+ * Every distinct text is a term, stored in a {@link PrefixTrie} under each of its word starts so that "gal" finds
+ * "Samsung Galaxy S25". A term weighs the number of live products carrying it plus their {@link TrendingIndex}
+ * scores. Terms are added and removed from {@link CatalogEntryChangedEvent}s as the catalog changes; popularity moves
+ * continuously, so the trie is rebuilt with fresh weights every {@code application.suggest.refresh-interval}.
+ */
+@Component
+@Order(CatalogIndex.ORDER + 2)
+public class SuggestIndex implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SuggestIndex.class);
+
+    /**
+     * Longer prefixes share the node of their first {@code MAX_DEPTH} characters and are filtered.
+     */
+    private static final int MAX_DEPTH = 24;
+
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.<Entry>comparingDouble(entry -> -entry.weight())
+            .thenComparing(entry -> entry.term().text);
+
+    private final ProductOrdinals productOrdinals;
+
+    private final TrendingIndex trendingIndex;
+
+    private final int capacity;
+
+    private final Map<String, Term> terms = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PrefixTrie<Entry> trie;
+
+    public SuggestIndex(ProductOrdinals productOrdinals, TrendingIndex trendingIndex, ApplicationProperties applicationProperties) {
+        this.productOrdinals = productOrdinals;
+        this.trendingIndex = trendingIndex;
+        this.capacity = applicationProperties.getSuggest().getTopK();
+        this.trie = new PrefixTrie<>(capacity, MAX_DEPTH, BY_WEIGHT);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    /**
+     * Rebuild the trie with the current popularity of every term. The trie entries being served are left untouched:
+     * a term gets a new entry in the new trie, since a rank must not change while stored.
+     */
+    @Scheduled(fixedDelayString = "${application.suggest.refresh-interval:PT1M}", initialDelayString = "${application.suggest.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        PrefixTrie<Entry> rebuilt = new PrefixTrie<>(capacity, MAX_DEPTH, BY_WEIGHT);
+        for (Term term : terms.values()) {
+            double[] popularity = {0};
+            term.ordinals.forEach((ordinal, present) -> popularity[0] += trendingIndex.score(productOrdinals.idOf(ordinal)));
+            term.popularity = popularity[0];
+            // catalog events wait for this refresh, so the entry is only used again once the new trie is live
+            term.entry = new Entry(term, term.ordinals.size() + term.popularity);
+            term.keys.forEach(key -> rebuilt.add(key, term.entry));
+        }
+        lock.writeLock().lock();
+        try {
+            trie = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.debug("Rebuilt suggest index of {} terms in {} ms", terms.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public synchronized void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        Map<String, String> before = texts(event.getBefore());
+        Map<String, String> after = texts(event.getAfter());
+        int ordinal = event.getOrdinal();
+        before.keySet().stream().filter(key -> !after.containsKey(key)).forEach(key -> {
+            Term term = terms.get(key);
+            if (term != null) {
+                update(term, changed -> changed.ordinals.remove(ordinal));
+            }
+        });
+        after.forEach((key, text) -> {
+            if (!before.containsKey(key)) {
+                update(terms.computeIfAbsent(key, k -> new Term(text, keys(k))), changed -> changed.ordinals.put(ordinal, 1));
+            }
+        });
+    }
+
+    /**
+     * @param prefix the text typed so far, case-insensitive.
+     * @param limit  the maximum number of suggestions, at most {@code application.suggest.top-k}.
+     * @return the most popular names, brands and tags with a word starting with {@code prefix}, best first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<String> suggestions = new ArrayList<>(Math.min(limit, capacity));
+        lock.readLock().lock();
+        try {
+            for (Entry entry : trie.top(key)) {
+                if (suggestions.size() == limit) {
+                    break;
+                }
+                if (key.length() <= MAX_DEPTH || entry.term().keys.stream().anyMatch(termKey -> termKey.startsWith(key))) {
+                    suggestions.add(entry.term().text);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+
+    private void update(Term term, Consumer<Term> change) {
+        lock.writeLock().lock();
+        try {
+            // the entry is removed and a new one added, since a rank must not change while stored
+            if (term.entry != null) {
+                term.keys.forEach(key -> trie.remove(key, term.entry));
+            }
+            change.accept(term);
+            if (term.ordinals.isEmpty()) {
+                terms.remove(normalize(term.text));
+                return;
+            }
+            term.entry = new Entry(term, term.ordinals.size() + term.popularity);
+            term.keys.forEach(key -> trie.add(key, term.entry));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the texts suggested for a product, keyed by their normalized form.
+     */
+    private static Map<String, String> texts(CatalogEntry entry) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        if (entry == null) {
+            return texts;
+        }
+        addText(texts, entry.getName());
+        addText(texts, entry.getBrand());
+        if (entry.getTags() != null) {
+            for (String tag : entry.getTags().split(",")) {
+                addText(texts, tag);
+            }
+        }
+        return texts;
+    }
+
+    private static void addText(Map<String, String> texts, String text) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            texts.putIfAbsent(key, text.trim());
+        }
+    }
+
+    /**
+     * @return the suffixes of {@code key} starting at each word.
+     */
+    private static List<String> keys(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Term {
+
+        private final String text;
+
+        private final List<String> keys;
+
+        private final IntIntHashMap ordinals = new IntIntHashMap();
+
+        private double popularity;
+
+        /**
+         * The entry of the term in the trie.
+         */
+        private Entry entry;
+
+        private Term(String text, List<String> keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * A term in the trie, with the weight it is ranked by.
+     */
+    private record Entry(Term term, double weight) {}
+}
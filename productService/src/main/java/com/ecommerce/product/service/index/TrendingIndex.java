@@ -0,0 +1,194 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import com.ecommerce.product.service.event.UserActivityRecordedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Streaming popularity engine fed by user activity.
+ * <p>
+ * Every activity adds its action weight to the product score, and scores decay exponentially with the configured
+ * half-life. Decay uses a forward-decay landmark: weights are stored scaled by {@code e^(λ(t - landmark))}, so adding
+ * an event never touches the other scores and rankings compare raw values. A {@link HeavyHitters} sketch per category,
+ * plus one across the whole catalog, keeps the trending products so reads never scan.
+ * <p>
+ * The scores are bootstrapped from the shared user_activity collection, then follow the activity this node sees: its
+ * own requests, plus those of the other replicas when {@code application.activity-feed.change-stream-enabled} is on.
+ * With the feed off, replicas drift apart as they each count their share of the traffic.
+ */
+@Component
+@Order(CatalogIndex.ORDER + 1)
+public class TrendingIndex implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrendingIndex.class);
+
+    /**
+     * Rescale once weights grow by this factor of e, long before doubles lose precision.
+     */
+    private static final double MAX_EXPONENT = 50;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 1024;
+
+    private final ProductOrdinals productOrdinals;
+
+    private final CatalogIndex catalogIndex;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ApplicationProperties.Trending properties;
+
+    private final double lambda;
+
+    private double landmark = Instant.now().getEpochSecond();
+
+    private double[] scores = new double[1024];
+
+    private final HeavyHitters all;
+
+    private final Map<String, HeavyHitters> byCategory = new HashMap<>();
+
+    public TrendingIndex(
+        ProductOrdinals productOrdinals,
+        CatalogIndex catalogIndex,
+        MongoTemplate mongoTemplate,
+        ApplicationProperties applicationProperties
+    ) {
+        this.productOrdinals = productOrdinals;
+        this.catalogIndex = catalogIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.properties = applicationProperties.getTrending();
+        this.lambda = Math.log(2) / properties.getHalfLife().toSeconds();
+        this.all = newHeavyHitters();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        // older activities have decayed below 1/1024 of their weight and would not change the ranking
+        Instant since = Instant.now().minus(properties.getHalfLife().multipliedBy(10));
+        Query query = new Query(Criteria.where("timestamp").gte(since));
+        query.fields().include("product_id", "action", "timestamp");
+        try (Stream<UserActivity> activities = mongoTemplate.stream(query, UserActivity.class)) {
+            activities.forEach(activity -> record(activity.getProductId(), activity.getAction(), activity.getTimestamp()));
+            LOG.info("Built trending index in {} ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not build trending index, it will only count activity from now on : {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUserActivityRecorded(UserActivityRecordedEvent event) {
+        record(event.getProductId(), event.getAction(), event.getTimestamp());
+    }
+
+    @EventListener
+    public synchronized void onCatalogEntryChanged(CatalogEntryChangedEvent event) {
+        CatalogEntry before = event.getBefore();
+        CatalogEntry after = event.getAfter();
+        if (before == null) {
+            return;
+        }
+        if (after == null) {
+            all.remove(event.getOrdinal());
+        }
+        if (after == null || !Objects.equals(before.getCategory(), after.getCategory())) {
+            HeavyHitters category = byCategory.get(before.getCategory());
+            if (category != null) {
+                category.remove(event.getOrdinal());
+            }
+        }
+    }
+
+    /**
+     * Count one activity.
+     *
+     * @param productId the id of the product.
+     * @param action    the action, activities whose action has no configured weight are ignored.
+     * @param timestamp when the activity happened, {@code null} for now.
+     */
+    public synchronized void record(String productId, String action, Instant timestamp) {
+        Double weight = properties.getActionWeights().get(action);
+        if (productId == null || weight == null) {
+            return;
+        }
+        int ordinal = productOrdinals.find(productId);
+        CatalogEntry entry = catalogIndex.get(ordinal);
+        if (entry == null) {
+            return;
+        }
+        double now = Instant.now().getEpochSecond();
+        double at = timestamp != null ? Math.min(timestamp.getEpochSecond(), now) : now;
+        rescale(now);
+
+        double decayed = weight * Math.exp(lambda * (at - landmark));
+        if (ordinal >= scores.length) {
+            scores = Arrays.copyOf(scores, Math.max(ordinal + 1, scores.length * 2));
+        }
+        scores[ordinal] += decayed;
+        all.add(ordinal, decayed);
+        byCategory.computeIfAbsent(entry.getCategory(), category -> newHeavyHitters()).add(ordinal, decayed);
+    }
+
+    /**
+     * @param category the category to rank, or {@code null} for the whole catalog.
+     * @param limit    the maximum number of products to return.
+     * @return the ids of the trending products, most popular first.
+     */
+    public synchronized List<String> top(String category, int limit) {
+        HeavyHitters heavyHitters = category == null ? all : byCategory.get(category);
+        if (heavyHitters == null) {
+            return List.of();
+        }
+        return heavyHitters.top(limit).stream().map(productOrdinals::idOf).toList();
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @return the current decayed score of the product.
+     */
+    public synchronized double score(String productId) {
+        int ordinal = productOrdinals.find(productId);
+        if (ordinal < 0 || ordinal >= scores.length) {
+            return 0;
+        }
+        return scores[ordinal] * Math.exp(-lambda * (Instant.now().getEpochSecond() - landmark));
+    }
+
+    private void rescale(double now) {
+        if (lambda * (now - landmark) < MAX_EXPONENT) {
+            return;
+        }
+        double factor = Math.exp(-lambda * (now - landmark));
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] *= factor;
+        }
+        all.scale(factor);
+        byCategory.values().forEach(heavyHitters -> heavyHitters.scale(factor));
+        landmark = now;
+    }
+
+    private HeavyHitters newHeavyHitters() {
+        return new HeavyHitters(properties.getTopK(), new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH));
+    }
+}
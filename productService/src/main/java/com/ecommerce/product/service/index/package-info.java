@@ -0,0 +1,4 @@
+/**
+ * In-memory indexes built from the catalog and user activity.
+ */
+package com.ecommerce.product.service.index;
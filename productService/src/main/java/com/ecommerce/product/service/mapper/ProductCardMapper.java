@@ -0,0 +1,17 @@
+package com.ecommerce.product.service.mapper;
+
+import com.ecommerce.product.domain.Product;
+import com.ecommerce.product.service.dto.ProductCardDTO;
+import org.mapstruct.*;
+
+import java.util.List;
+
+/**
+ * Mapper for the entity {@link Product} and its slim DTO {@link ProductCardDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface ProductCardMapper {
+    ProductCardDTO toDto(Product product);
+
+    List<ProductCardDTO> toDto(List<Product> products);
+}
@@ -6,6 +6,24 @@ import org.mapstruct.*;
 
 /**
  * Mapper for the entity {@link Product} and its DTO {@link ProductDTO}.
+ * <p>
+ * The audit fields are maintained by the persistence layer and never taken from a DTO.
  */
 @Mapper(componentModel = "spring")
-public interface ProductMapper extends EntityMapper<ProductDTO, Product> {}
+public interface ProductMapper extends EntityMapper<ProductDTO, Product> {
+    @Override
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastModifiedBy", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    Product toEntity(ProductDTO dto);
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "createdDate", ignore = true)
+    @Mapping(target = "lastModifiedBy", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void partialUpdate(@MappingTarget Product entity, ProductDTO dto);
+}
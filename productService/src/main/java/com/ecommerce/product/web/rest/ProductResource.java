@@ -1,22 +1,47 @@
 package com.ecommerce.product.web.rest;
 
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.service.CatalogSnapshotService;
+import com.ecommerce.product.service.ProductChangeService;
+import com.ecommerce.product.service.ProductImportService;
 import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.index.FacetIndex;
+import com.ecommerce.product.service.dto.CategoryDTO;
+import com.ecommerce.product.service.dto.ProductBatchDTO;
+import com.ecommerce.product.service.dto.ProductCardDTO;
+import com.ecommerce.product.service.dto.ProductChangesDTO;
 import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.dto.ProductEngagementDTO;
+import com.ecommerce.product.service.dto.ProductFacetsDTO;
+import com.ecommerce.product.service.dto.ProductImportReportDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -30,14 +55,37 @@ public class ProductResource {
     private static final Logger LOG = LoggerFactory.getLogger(ProductResource.class);
 
     private static final String ENTITY_NAME = "productServiceProduct";
+
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private static final int MAX_CHANGES = 1000;
+
+    private static final int MAX_PRICE_BUCKETS = 50;
+
+    private static final int MAX_LIST_SIZE = 100;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
     private final ProductService productService;
     private final ProductRepository productRepository;
+    private final ProductImportService productImportService;
+    private final ProductChangeService productChangeService;
+    private final CatalogSnapshotService catalogSnapshotService;
     //    @Value("${jhipster.clientApp.name}")
     private String applicationName = "productService";
 
-    public ProductResource(ProductService productService, ProductRepository productRepository) {
+    public ProductResource(
+            ProductService productService,
+            ProductRepository productRepository,
+            ProductImportService productImportService,
+            ProductChangeService productChangeService,
+            CatalogSnapshotService catalogSnapshotService
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
+        this.productImportService = productImportService;
+        this.productChangeService = productChangeService;
+        this.catalogSnapshotService = catalogSnapshotService;
     }
 
     /**
@@ -66,6 +114,7 @@ public class ProductResource {
      * @param productDTO the productDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated productDTO,
      * or with status {@code 400 (Bad Request)} if the productDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the productDTO has a version and the product was updated since,
      * or with status {@code 500 (Internal Server Error)} if the productDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -86,7 +135,11 @@ public class ProductResource {
             throw new BadRequestException("Entity not found");
         }
 
-        productDTO = productService.update(productDTO);
+        try {
+            productDTO = productService.update(productDTO);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         return ResponseEntity.ok()
                 // .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, productDTO.getId()))
                 .body(productDTO);
@@ -100,6 +153,7 @@ public class ProductResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated productDTO,
      * or with status {@code 400 (Bad Request)} if the productDTO is not valid,
      * or with status {@code 404 (Not Found)} if the productDTO is not found,
+     * or with status {@code 409 (Conflict)} if the productDTO has a version and the product was updated since,
      * or with status {@code 500 (Internal Server Error)} if the productDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -116,13 +170,14 @@ public class ProductResource {
             throw new BadRequestException("Invalid ID");
         }
 
-        if (!productRepository.existsById(id)) {
-            throw new BadRequestException("Entity not found");
+        Optional<ProductDTO> result;
+        try {
+            result = productService.partialUpdate(productDTO);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
 
-        Optional<ProductDTO> result = productService.partialUpdate(productDTO);
-
-        return ResponseEntity.ok(result.orElseThrow());
+        return ResponseEntity.ok(result.orElseThrow(() -> new BadRequestException("Entity not found")));
     }
 
     /**
@@ -141,38 +196,426 @@ public class ProductResource {
                 .body(page.getContent());
     }
 
+    /**
+     * {@code GET  /products/pageProduct} : get a page of products.
+     *
+     * @param pageable the pagination information.
+     * @param request  the current request, used to evaluate {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of products in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is still current.
+     */
     @GetMapping("pageProduct")
-    public ResponseEntity<Page<ProductDTO>> getAllProductsPageable(Pageable pageable) {
+    public ResponseEntity<Page<ProductDTO>> getAllProductsPageable(Pageable pageable, WebRequest request) {
         LOG.debug("REST request to get a page of Products");
-        Page<ProductDTO> page = productService.findAll(pageable);
+        ProductService.Tagged<Page<ProductDTO>> page = productService.findAllTagged(pageable);
+        if (request.checkNotModified(page.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(page.eTag()).build();
+        }
 //        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok(page);
+        return ResponseEntity.ok().eTag(page.eTag()).body(page.body().get());
     }
 
+    /**
+     * {@code GET  /products/pageProduct?view=card} : get a page of products as slim cards.
+     *
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of product cards in body.
+     */
+    @GetMapping(value = "pageProduct", params = "view=card")
+    public ResponseEntity<Page<ProductCardDTO>> getAllProductCardsPageable(Pageable pageable) {
+        LOG.debug("REST request to get a page of Product cards");
+        return ResponseEntity.ok(productService.findAllCards(pageable));
+    }
+
+    /**
+     * {@code GET  /products/search} : search products by name, price range and facet values.
+     * Several values of one facet are alternatives, different facets must all match.
+     *
+     * @param searchTerm the name pattern.
+     * @param minPrice   the minimum price.
+     * @param maxPrice   the maximum price.
+     * @param category   the selected categories.
+     * @param brand      the selected brands.
+     * @param tag        the selected tags.
+     * @param pageable   the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of products in body.
+     */
     @GetMapping("search")
     public ResponseEntity<Page<ProductDTO>> getSearchProducts(
             @RequestParam(name = "search", required = false, defaultValue = "") String searchTerm,
             @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
             @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "category", required = false) List<String> category,
+            @RequestParam(name = "brand", required = false) List<String> brand,
+            @RequestParam(name = "tag", required = false) List<String> tag,
             Pageable pageable
     ) {
         LOG.debug("REST request to get a page of Products");
-        Page<ProductDTO> productPage = productService.searchProducts(searchTerm, minPrice, maxPrice, pageable);
+        Page<ProductDTO> productPage = productService.searchProducts(searchTerm, minPrice, maxPrice, facets(category, brand, tag), pageable);
 //        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok(productPage);
     }
 
+    @GetMapping(value = "search", params = "view=card")
+    public ResponseEntity<Page<ProductCardDTO>> getSearchProductCards(
+            @RequestParam(name = "search", required = false, defaultValue = "") String searchTerm,
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "category", required = false) List<String> category,
+            @RequestParam(name = "brand", required = false) List<String> brand,
+            @RequestParam(name = "tag", required = false) List<String> tag,
+            Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Product cards");
+        return ResponseEntity.ok(productService.searchProductCards(searchTerm, minPrice, maxPrice, facets(category, brand, tag), pageable));
+    }
+
+    /**
+     * {@code GET  /products/facets} : count the products of a search per category, brand, tag and price bucket.
+     *
+     * @param searchTerm the name pattern.
+     * @param minPrice   the minimum price.
+     * @param maxPrice   the maximum price.
+     * @param category   the selected categories.
+     * @param brand      the selected brands.
+     * @param tag        the selected tags.
+     * @param buckets    the number of price buckets wanted, from 1 to 50.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facet counts and price histogram in body,
+     * or with status {@code 400 (Bad Request)} if the number of buckets is out of range.
+     */
+    @GetMapping("facets")
+    public ResponseEntity<ProductFacetsDTO> getProductFacets(
+            @RequestParam(name = "search", required = false, defaultValue = "") String searchTerm,
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "category", required = false) List<String> category,
+            @RequestParam(name = "brand", required = false) List<String> brand,
+            @RequestParam(name = "tag", required = false) List<String> tag,
+            @RequestParam(name = "priceBuckets", required = false, defaultValue = "5") int buckets
+    ) {
+        LOG.debug("REST request to get Product facets");
+        if (buckets < 1 || buckets > MAX_PRICE_BUCKETS) {
+            throw new BadRequestException("priceBuckets must be between 1 and " + MAX_PRICE_BUCKETS);
+        }
+        return ResponseEntity.ok(productService.findFacets(searchTerm, minPrice, maxPrice, facets(category, brand, tag), buckets));
+    }
+
+    private static Map<FacetIndex.Facet, List<String>> facets(List<String> category, List<String> brand, List<String> tag) {
+        Map<FacetIndex.Facet, List<String>> facets = new EnumMap<>(FacetIndex.Facet.class);
+        facets.put(FacetIndex.Facet.CATEGORY, category == null ? List.of() : category);
+        facets.put(FacetIndex.Facet.BRAND, brand == null ? List.of() : brand);
+        facets.put(FacetIndex.Facet.TAG, tag == null ? List.of() : tag);
+        return facets;
+    }
+
+    /**
+     * {@code GET  /products/categories} : get the category browse tree.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the categories in body, with their product
+     * count and the product count of each of their brands, largest first.
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryDTO>> getCategories() {
+        LOG.debug("REST request to get Product categories");
+        return ResponseEntity.ok(productService.findCategories());
+    }
+
+    /**
+     * {@code GET  /products/trending} : get the products with the most recent activity.
+     *
+     * @param category the category to rank, the whole catalog if absent.
+     * @param limit    the maximum number of products to return, from 1 to 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the trending product cards in body, most popular first,
+     * or with status {@code 400 (Bad Request)} if the limit is out of range.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProductCardDTO>> getTrendingProducts(
+            @RequestParam(name = "category", required = false) String category,
+            @RequestParam(name = "limit", required = false, defaultValue = "10") int limit
+    ) {
+        LOG.debug("REST request to get trending Products : {}", category);
+        if (limit < 1 || limit > MAX_LIST_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIST_SIZE);
+        }
+        return ResponseEntity.ok(productService.findTrending(category, limit));
+    }
+
+    /**
+     * {@code GET  /products/:id/similar} : get the products whose content is most similar to the "id" product.
+     *
+     * @param id    the id of the product.
+     * @param limit the maximum number of products to return, from 1 to 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the similar product cards in body, most similar first,
+     * or with status {@code 400 (Bad Request)} if the limit is out of range.
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ProductCardDTO>> getSimilarProducts(
+            @PathVariable("id") String id,
+            @RequestParam(name = "limit", required = false, defaultValue = "10") int limit
+    ) {
+        LOG.debug("REST request to get Products similar to : {}", id);
+        if (limit < 1 || limit > MAX_LIST_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIST_SIZE);
+        }
+        return ResponseEntity.ok(productService.findSimilar(id, limit));
+    }
+
+    /**
+     * {@code GET  /products/:id/engagement} : get the recent engagement of the "id" product.
+     *
+     * @param id      the id of the product.
+     * @param minutes the number of minutes to look back.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of activities per action in body.
+     */
+    @GetMapping("/{id}/engagement")
+    public ResponseEntity<ProductEngagementDTO> getProductEngagement(
+            @PathVariable("id") String id,
+            @RequestParam(name = "minutes", required = false, defaultValue = "10") int minutes
+    ) {
+        LOG.debug("REST request to get Product engagement : {}", id);
+        return ResponseEntity.ok(productService.findEngagement(id, minutes));
+    }
+
+    /**
+     * {@code GET  /products/suggest?prefix=} : get typeahead suggestions for a search box.
+     *
+     * @param prefix the text typed so far.
+     * @param limit  the maximum number of suggestions to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the matching product names, brands and tags in body, most popular first.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> getSuggestions(
+            @RequestParam(name = "prefix", required = false, defaultValue = "") String prefix,
+            @RequestParam(name = "limit", required = false, defaultValue = "10") int limit
+    ) {
+        LOG.debug("REST request to get suggestions : {}", prefix);
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
+    /**
+     * {@code GET  /products/batch?ids=} : get several products in one call.
+     *
+     * @param ids the ids of the products to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the products in request order and the missing ids,
+     * or with status {@code 400 (Bad Request)} if too many ids were requested.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchDTO> getProductsBatch(@RequestParam("ids") List<String> ids) {
+        LOG.debug("REST request to get Products : {}", ids);
+        return ResponseEntity.ok(findBatch(ids));
+    }
+
+    /**
+     * {@code POST  /products/batch} : get several products in one call, for id lists too long for a query string.
+     *
+     * @param ids the ids of the products to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the products in request order and the missing ids,
+     * or with status {@code 400 (Bad Request)} if too many ids were requested or an id is null.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchDTO> postProductsBatch(@NotNull @RequestBody List<String> ids) {
+        LOG.debug("REST request to get Products : {}", ids);
+        return ResponseEntity.ok(findBatch(ids));
+    }
+
+    /**
+     * {@code GET  /products/stock?ids=} : get the live stock of several products, to refresh cached or snapshot
+     * products without reading them again.
+     *
+     * @param ids the ids of the products.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the stock of each product with an inventory record,
+     * or with status {@code 400 (Bad Request)} if too many ids were requested.
+     */
+    @GetMapping("/stock")
+    public ResponseEntity<Map<String, Integer>> getStock(@RequestParam("ids") List<String> ids) {
+        LOG.debug("REST request to get Product stock : {}", ids);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Cannot get the stock of more than " + MAX_BATCH_SIZE + " products at once");
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productService.findStock(ids));
+    }
+
+    private ProductBatchDTO findBatch(List<String> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Cannot get more than " + MAX_BATCH_SIZE + " products at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Invalid id");
+        }
+        return productService.findAllById(ids);
+    }
+
+    /**
+     * {@code POST  /products/import} : bulk import a product catalog streamed in the request body.
+     *
+     * @param format      the catalog format, {@code json}, {@code ndjson} or {@code csv}; inferred from the content type when absent.
+     * @param contentType the content type of the catalog.
+     * @param body        the catalog.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+            @RequestParam(name = "format", required = false) String format,
+            @RequestHeader(name = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body
+    ) throws IOException {
+        LOG.debug("REST request to import Products : {} {}", format, contentType);
+        return ResponseEntity.ok(productImportService.importProducts(body, importFormat(format, contentType)));
+    }
+
+    private static ProductImportService.Format importFormat(String format, String contentType) {
+        if (format != null) {
+            try {
+                return ProductImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown import format " + format);
+            }
+        }
+        if (contentType != null && contentType.startsWith("text/csv")) {
+            return ProductImportService.Format.CSV;
+        }
+        if (contentType != null && contentType.startsWith("application/x-ndjson")) {
+            return ProductImportService.Format.NDJSON;
+        }
+        return ProductImportService.Format.JSON;
+    }
+
+    /**
+     * {@code GET  /products/changes?since=} : get the products updated and deleted after a change token.
+     *
+     * @param since the {@code nextToken} of the previous call, absent for the whole catalog.
+     * @param limit the maximum number of changes to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the changes and the next token,
+     * or with status {@code 410 (Gone)} if the token is too old and the catalog must be reloaded.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> getProductChanges(
+            @RequestParam(name = "since", required = false) String since,
+            @RequestParam(name = "limit", required = false, defaultValue = "500") int limit
+    ) {
+        LOG.debug("REST request to get Product changes : {}", since);
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_CHANGES);
+        }
+        return productChangeService.findChanges(since, limit)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+
+    /**
+     * {@code GET  /products/snapshot} : get the latest catalog snapshot, the cards of every product as gzipped NDJSON.
+     * <p>
+     * The {@code X-Change-Token} header is the token to pass to {@code /products/changes} once the snapshot is loaded.
+     *
+     * @param request  the current request, used to evaluate {@code If-None-Match}.
+     * @param response the response the snapshot file is sent to.
+     * @throws IOException if the snapshot cannot be sent.
+     */
+    @GetMapping("/snapshot")
+    public void getLatestCatalogSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to get the latest catalog snapshot");
+        CatalogSnapshotService.Snapshot snapshot = catalogSnapshotService.getLatest().orElse(null);
+        if (snapshot == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        // short lived, so clients pick up a rebuild; the versioned URL below is immutable
+        sendSnapshot(snapshot, CacheControl.maxAge(Duration.ofMinutes(1)), request, response);
+    }
+
+    /**
+     * {@code GET  /products/snapshot/:version} : get a catalog snapshot by version.
+     *
+     * @param version  the version of the snapshot.
+     * @param request  the current request, used to evaluate {@code If-None-Match}.
+     * @param response the response the snapshot file is sent to.
+     * @throws IOException if the snapshot cannot be sent.
+     */
+    @GetMapping("/snapshot/{version}")
+    public void getCatalogSnapshot(
+            @PathVariable("version") long version,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to get catalog snapshot : {}", version);
+        CatalogSnapshotService.Snapshot snapshot = catalogSnapshotService.get(version).orElse(null);
+        if (snapshot == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        sendSnapshot(snapshot, CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable(), request, response);
+    }
+
+    /**
+     * {@code POST  /products/snapshot} : build a new catalog snapshot now, when {@code application.catalog-snapshot.on-demand}
+     * allows it.
+     *
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and the location of the new snapshot,
+     * or with status {@code 403 (Forbidden)} if on demand builds are disabled,
+     * or with status {@code 429 (Too Many Requests)} if a snapshot is being built or the latest one is recent.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<Void> buildCatalogSnapshot() throws IOException {
+        LOG.debug("REST request to build a catalog snapshot");
+        if (!catalogSnapshotService.isOnDemand()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return catalogSnapshotService.build()
+                .map(snapshot -> ResponseEntity.created(URI.create("/api/products/snapshot/" + snapshot.version()))
+                        .header("X-Change-Token", snapshot.changeToken())
+                        .<Void>build())
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+    }
+
+    /**
+     * Send a snapshot file as is: it is already gzipped, so it goes out with {@code Content-Encoding: gzip}, and Tomcat
+     * sends it with {@code sendfile} straight from the page cache when the connector supports it.
+     */
+    private static void sendSnapshot(
+            CatalogSnapshotService.Snapshot snapshot,
+            CacheControl cacheControl,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        String eTag = "\"" + snapshot.version() + "\"";
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader("X-Change-Token", snapshot.changeToken());
+        if (eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLengthLong(snapshot.size());
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", snapshot.file().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", snapshot.size());
+            return;
+        }
+        Files.copy(snapshot.file(), response.getOutputStream());
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product.
      *
-     * @param id the id of the productDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO, or with status {@code 404 (Not Found)}.
+     * @param id      the id of the productDTO to retrieve.
+     * @param request the current request, used to evaluate {@code If-None-Match}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO,
+     * or with status {@code 304 (Not Modified)} if the client copy is still current, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable("id") String id) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable("id") String id, WebRequest request) {
         LOG.debug("REST request to get Product : {}", id);
-        Optional<ProductDTO> productDTO = productService.findOne(id);
-        return ResponseEntity.ok(productDTO.orElseThrow());
+        ProductService.Tagged<ProductDTO> productDTO = productService.findOneTagged(id).orElseThrow();
+        if (request.checkNotModified(productDTO.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(productDTO.eTag()).build();
+        }
+        return ResponseEntity.ok().eTag(productDTO.eTag()).body(productDTO.body().get());
     }
 
     /**
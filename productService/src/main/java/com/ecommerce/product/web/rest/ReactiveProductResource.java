@@ -0,0 +1,109 @@
+package com.ecommerce.product.web.rest;
+
+import com.ecommerce.product.service.ReactiveProductService;
+import com.ecommerce.product.service.dto.ProductDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking read API for {@link com.ecommerce.product.domain.Product}.
+ * <p>
+ * Collections are streamed as newline delimited JSON: each product is written and flushed as the reactive driver
+ * delivers it, and the servlet request thread is released while the database works.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+public class ReactiveProductResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveProductResource.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ReactiveProductService reactiveProductService;
+
+    public ReactiveProductResource(ReactiveProductService reactiveProductService) {
+        this.reactiveProductService = reactiveProductService;
+    }
+
+    /**
+     * {@code GET  /reactive/products} : stream the products.
+     *
+     * @param page the page to stream, the whole catalog if neither page nor size is given.
+     * @param size the page size.
+     * @param sort the order of the products.
+     * @return the products, one JSON document per line.
+     */
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDTO> getAllProducts(
+            @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "size", required = false) Integer size,
+            Sort sort
+    ) {
+        LOG.debug("REST request to stream Products");
+        if (page == null && size == null) {
+            return reactiveProductService.findAll(sort);
+        }
+        return reactiveProductService.findAll(pageRequest(page, size, sort));
+    }
+
+    /**
+     * {@code GET  /reactive/products/:id} : get the "id" product.
+     *
+     * @param id the id of the productDTO to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDTO>> getProduct(@PathVariable("id") String id) {
+        LOG.debug("REST request to get Product : {}", id);
+        return reactiveProductService.findOne(id).map(ResponseEntity::ok).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code GET  /reactive/products/search} : stream a page of products matching a name and price range.
+     *
+     * @param searchTerm the name pattern.
+     * @param minPrice   the minimum price.
+     * @param maxPrice   the maximum price.
+     * @param page       the page to stream.
+     * @param size       the page size.
+     * @param sort       the order of the products.
+     * @return the matching products, one JSON document per line.
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDTO> searchProducts(
+            @RequestParam(name = "search", required = false, defaultValue = "") String searchTerm,
+            @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "size", required = false) Integer size,
+            Sort sort
+    ) {
+        LOG.debug("REST request to stream searched Products : {}", searchTerm);
+        return reactiveProductService.searchProducts(searchTerm, minPrice, maxPrice, pageRequest(page, size, sort));
+    }
+
+    /**
+     * {@code GET  /reactive/products/recommend/:userId} : stream the products recommended to a user.
+     *
+     * @param userId the id of the user.
+     * @return the recommended products, best first, one JSON document per line.
+     */
+    @GetMapping(value = "/recommend/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductDTO> getRecommendedProducts(@PathVariable("userId") String userId) {
+        LOG.debug("REST request to stream recommended Products : {}", userId);
+        return reactiveProductService.getRecommendedProducts(userId);
+    }
+
+    private static PageRequest pageRequest(Integer page, Integer size, Sort sort) {
+        return PageRequest.of(page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size, sort);
+    }
+}
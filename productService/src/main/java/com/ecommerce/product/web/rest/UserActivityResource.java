@@ -2,13 +2,17 @@ package com.ecommerce.product.web.rest;
 
 import com.ecommerce.product.repository.UserActivityRepository;
 import com.ecommerce.product.service.UserActivityService;
+import com.ecommerce.product.service.dto.ProductCardDTO;
 import com.ecommerce.product.service.dto.ProductDTO;
+import com.ecommerce.product.service.dto.UserActivityBatchResultDTO;
 import com.ecommerce.product.service.dto.UserActivityDTO;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +32,8 @@ public class UserActivityResource {
     private static final Logger LOG = LoggerFactory.getLogger(UserActivityResource.class);
 
     private static final String ENTITY_NAME = "productServiceUserActivity";
+
+    private static final int MAX_BATCH_SIZE = 1000;
     private final UserActivityService userActivityService;
     private final UserActivityRepository userActivityRepository;
     //    @Value("${jhipster.clientApp.name}")
@@ -115,24 +121,25 @@ public class UserActivityResource {
             throw new BadRequestException("Invalid ID");
         }
 
-        if (!userActivityRepository.existsById(id)) {
-            throw new BadRequestException("Entity not found");
-        }
-
         Optional<UserActivityDTO> result = userActivityService.partialUpdate(userActivityDTO);
 
-        return ResponseEntity.ok(result.orElseThrow());
+        return ResponseEntity.ok(result.orElseThrow(() -> new BadRequestException("Entity not found")));
     }
 
     /**
-     * {@code GET  /user-activities} : get all the userActivities.
+     * {@code GET  /user-activities} : get a page of userActivities.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userActivities in body.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userActivities in body,
+     * with the total number of userActivities in the {@code X-Total-Count} header.
      */
     @GetMapping("")
-    public List<UserActivityDTO> getAllUserActivities() {
-        LOG.debug("REST request to get all UserActivities");
-        return userActivityService.findAll();
+    public ResponseEntity<List<UserActivityDTO>> getAllUserActivities(Pageable pageable) {
+        LOG.debug("REST request to get a page of UserActivities");
+        Page<UserActivityDTO> page = userActivityService.findAll(pageable);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", Long.toString(page.getTotalElements()))
+                .body(page.getContent());
     }
 
     /**
@@ -169,15 +176,45 @@ public class UserActivityResource {
         LOG.debug("REST request to save or update UserActivity : {}", userActivityDTO);
 
         userActivityDTO = userActivityService.saveOrUpdate(userActivityDTO);
+        if (userActivityDTO.getId() == null) {
+            // buffered, the document is written by the next flush
+            return ResponseEntity.accepted().body(userActivityDTO);
+        }
         return ResponseEntity.created(new URI("/api/user-activities/" + userActivityDTO.getId()))
 //            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, userActivityDTO.getId()))
                 .body(userActivityDTO);
     }
 
+    /**
+     * {@code POST  /user-activities/batch} : Record several activities with one bulk upsert.
+     *
+     * @param userActivityDTOs the activities to record, in the order the client queued them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body one result per event, in upload order,
+     * or with status {@code 400 (Bad Request)} if the batch is empty or too large.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserActivityBatchResultDTO>> createOrUpdateUserActivities(
+            @NotNull @RequestBody List<UserActivityDTO> userActivityDTOs
+    ) {
+        LOG.debug("REST request to save or update {} UserActivities", userActivityDTOs.size());
+        if (userActivityDTOs.isEmpty() || userActivityDTOs.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " activities");
+        }
+
+        return ResponseEntity.ok(userActivityService.saveOrUpdateAll(userActivityDTOs));
+    }
+
     @GetMapping("/recommend/{userId}")
     public ResponseEntity<List<ProductDTO>> getRecommendations(@PathVariable String userId) {
         LOG.debug("REST request to get recommended products : {}", userId);
 
         return ResponseEntity.ok(userActivityService.getRecommendedProducts(userId));
     }
+
+    @GetMapping(value = "/recommend/{userId}", params = "view=card")
+    public ResponseEntity<List<ProductCardDTO>> getRecommendationCards(@PathVariable String userId) {
+        LOG.debug("REST request to get recommended product cards : {}", userId);
+
+        return ResponseEntity.ok(userActivityService.getRecommendedProductCards(userId));
+    }
 }
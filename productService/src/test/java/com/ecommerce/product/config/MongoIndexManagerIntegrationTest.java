@@ -0,0 +1,224 @@
+package com.ecommerce.product.config;
+
+import com.ecommerce.product.domain.UserActivity;
+import com.ecommerce.product.repository.UserActivityRepository;
+import com.ecommerce.product.repository.UserActivityRepositoryCustomImpl;
+import com.ecommerce.product.service.ClusterLock;
+import com.ecommerce.product.service.InventoryService;
+import com.ecommerce.product.service.ProductChangeService;
+import com.ecommerce.product.service.ProductService;
+import com.ecommerce.product.service.UserActivityRollupService;
+import com.ecommerce.product.service.index.CatalogIndex;
+import com.ecommerce.product.service.index.ProductOrdinals;
+import com.ecommerce.product.service.index.TrendingIndex;
+import com.ecommerce.product.service.mapper.ProductMapperImpl;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks against a real MongoDB that the queries the service issues are served by an index declared in
+ * {@link MongoIndexManager}. The repositories and services run their real queries; every {@code find}, {@code update}
+ * and {@code delete} command they send is captured with a {@link CommandListener} and explained, and the winning plan
+ * must scan the expected index and never the collection. Skipped where Docker is not available.
+ */
+class MongoIndexManagerIntegrationTest {
+
+    /**
+     * The commands that are explained; counts run as aggregations and share the plan of their {@code find}.
+     */
+    private static final Set<String> EXPLAINED = Set.of("find", "update", "delete");
+
+    /**
+     * Fields of a sent command that {@code explain} does not accept.
+     */
+    private static final Set<String> SESSION_FIELDS = Set.of(
+            "$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "readConcern", "writeConcern",
+            "apiVersion", "apiStrict", "apiDeprecationErrors"
+    );
+
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+    private static MongoDBContainer mongo;
+
+    private static MongoClient client;
+
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startMongo() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        mongo = new MongoDBContainer(DockerImageName.parse("mongo:6.0"));
+        mongo.start();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongo.getReplicaSetUrl()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (EXPLAINED.contains(event.getCommandName())) {
+                            commands.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build());
+        mongoTemplate = new MongoTemplate(client, "product_test");
+        new MongoIndexManager(mongoTemplate, new ApplicationProperties()).run(new DefaultApplicationArguments());
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (client != null) {
+            client.close();
+        }
+        if (mongo != null) {
+            mongo.stop();
+        }
+    }
+
+    @BeforeEach
+    void clearCommands() {
+        commands.clear();
+    }
+
+    @Test
+    void priceSearchUsesIndex() {
+        // only the MongoDB search path is run, it needs none of the in-memory indexes
+        ProductService productService = new ProductService(
+                null, null, new ProductMapperImpl(), null, mongoTemplate, null, event -> {}, null, null, null, null,
+                null, null, null, null, null, new InventoryService(null, mongoTemplate)
+        );
+        productService.searchProducts(null, new BigDecimal("10"), new BigDecimal("20"), PageRequest.of(0, 20));
+        assertIndexScans("product", "price");
+    }
+
+    @Test
+    void catalogChangesUseIndexes() {
+        ProductChangeService productChangeService = new ProductChangeService(mongoTemplate, new ProductMapperImpl(), new ApplicationProperties());
+        String token = Instant.now().minus(1, ChronoUnit.HOURS).toEpochMilli() + ":p1";
+        assertThat(productChangeService.findChanges(token, 100)).isPresent();
+        assertIndexScans("product", "last_modified_date_id");
+        assertIndexScans("product_tombstone", "deleted_date");
+    }
+
+    @Test
+    void userActivityRepositoryUsesIndexes() {
+        UserActivityRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(
+                UserActivityRepository.class,
+                RepositoryComposition.RepositoryFragments.just(new UserActivityRepositoryCustomImpl(mongoTemplate))
+        );
+
+        repository.findByUserId1AndProductIdAndAction("u1", "p1", "view");
+        repository.findByUserId1("u1");
+        assertIndexScans("user_activity", "user_id_1_product_id_action");
+
+        repository.findByProductId("p1");
+        assertIndexScans("user_activity", "product_id");
+
+        UserActivity activity = new UserActivity();
+        activity.setUserId1("u1");
+        activity.setProductId("p1");
+        activity.setAction("view");
+        activity.setTimestamp(Instant.now());
+        repository.upsertAll(List.of(activity));
+        assertIndexScans("user_activity", "user_id_1_product_id_action");
+    }
+
+    @Test
+    void trendingBootstrapUsesIndex() {
+        ProductOrdinals productOrdinals = new ProductOrdinals();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        new TrendingIndex(productOrdinals, new CatalogIndex(productOrdinals, mongoTemplate, event -> {}), mongoTemplate, applicationProperties)
+                .run(new DefaultApplicationArguments());
+        assertIndexScans("user_activity", "timestamp");
+    }
+
+    @Test
+    void activityRollupUsesIndex() {
+        new UserActivityRollupService(mongoTemplate, new ClusterLock(mongoTemplate), new ApplicationProperties()).rollup();
+        assertIndexScans("user_activity", "timestamp");
+    }
+
+    @Test
+    void userActivityKeyIsUnique() {
+        IndexInfo index = mongoTemplate.indexOps(UserActivity.class).getIndexInfo().stream()
+                .filter(info -> info.getName().equals("user_id_1_product_id_action"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(index.isUnique()).isTrue();
+    }
+
+    /**
+     * Explain the commands captured on a collection since the last call, and check each scans the index.
+     */
+    private static void assertIndexScans(String collection, String indexName) {
+        List<BsonDocument> issued = commands.stream()
+                .filter(command -> collection.equals(command.get(command.getFirstKey()).asString().getValue()))
+                .toList();
+        commands.removeAll(issued);
+        assertThat(issued).as("commands on %s", collection).isNotEmpty();
+
+        for (BsonDocument command : issued) {
+            BsonDocument explained = command.clone();
+            SESSION_FIELDS.forEach(explained::remove);
+            Document explain = mongoTemplate.getDb().runCommand(
+                    new BsonDocument("explain", explained).append("verbosity", new BsonString("queryPlanner"))
+            );
+            Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+            List<Document> stages = new ArrayList<>();
+            collectStages(winningPlan, stages);
+            assertThat(stages).extracting(stage -> stage.getString("stage")).as("plan of %s", command.toJson()).doesNotContain("COLLSCAN");
+            assertThat(stages)
+                    .filteredOn(stage -> "IXSCAN".equals(stage.getString("stage")))
+                    .extracting(stage -> stage.getString("indexName"))
+                    .as("index scans of %s : %s", command.toJson(), winningPlan.toJson())
+                    .contains(indexName);
+        }
+    }
+
+    private static void collectStages(Document stage, List<Document> stages) {
+        stages.add(stage);
+        // MongoDB 6 may wrap the classic plan of a query executed by the slot based engine
+        if (stage.get("queryPlan") instanceof Document plan) {
+            collectStages(plan, stages);
+        }
+        if (stage.get("inputStage") instanceof Document input) {
+            collectStages(input, stages);
+        }
+        if (stage.get("inputStages") instanceof List<?> inputs) {
+            for (Object input : inputs) {
+                collectStages((Document) input, stages);
+            }
+        }
+    }
+}
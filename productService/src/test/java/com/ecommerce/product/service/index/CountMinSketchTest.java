@@ -0,0 +1,50 @@
+package com.ecommerce.product.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        int depth = 4;
+        int width = 256;
+        CountMinSketch sketch = new CountMinSketch(depth, width);
+        Random random = new Random(42);
+        double[] weights = new double[20_000];
+        double total = 0;
+        for (int key = 0; key < weights.length; key++) {
+            // a long tail of light keys and a few heavy ones
+            weights[key] = key < 20 ? 1000 : random.nextInt(5) + 1;
+            sketch.add(key, weights[key]);
+            total += weights[key];
+        }
+
+        double bound = Math.E / width * total;
+        int beyondBound = 0;
+        for (int key = 0; key < weights.length; key++) {
+            double estimate = sketch.estimate(key);
+            assertThat(estimate).isGreaterThanOrEqualTo(weights[key]);
+            if (estimate - weights[key] > bound) {
+                beyondBound++;
+            }
+        }
+        // the bound holds with probability 1 - e^-depth, about 98% of the keys
+        assertThat((double) beyondBound / weights.length).isLessThanOrEqualTo(Math.exp(-depth));
+    }
+
+    @Test
+    void scaleMultipliesEstimates() {
+        CountMinSketch sketch = new CountMinSketch(3, 64);
+        sketch.add(1, 10);
+        sketch.add(2, 4);
+        sketch.scale(0.5);
+        assertThat(sketch.estimate(1)).isCloseTo(5, within(1e-9));
+        assertThat(sketch.estimate(2)).isGreaterThanOrEqualTo(2);
+        assertThat(sketch.estimate(3)).isLessThanOrEqualTo(7);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.product.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void findsTheHeaviestKeysAmongManyLightOnes() {
+        HeavyHitters heavyHitters = new HeavyHitters(20, new CountMinSketch(4, 1024));
+        List<int[]> events = new ArrayList<>();
+        for (int key = 0; key < 10; key++) {
+            // heavy keys, heaviest first: key 0 gets 500 events, key 9 gets 320
+            for (int i = 0; i < 500 - key * 20; i++) {
+                events.add(new int[]{key});
+            }
+        }
+        for (int key = 10; key < 20_000; key++) {
+            events.add(new int[]{key});
+        }
+        Collections.shuffle(events, new Random(42));
+        for (int[] event : events) {
+            heavyHitters.add(event[0], 1);
+        }
+
+        // the overcount is at most e / 1024 of 24k events, about 64, below the gaps between heavy keys
+        assertThat(heavyHitters.top(10)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void topIsLimitedAndHeaviestFirst() {
+        HeavyHitters heavyHitters = new HeavyHitters(5, new CountMinSketch(4, 256));
+        heavyHitters.add(1, 1);
+        heavyHitters.add(2, 3);
+        heavyHitters.add(3, 2);
+
+        assertThat(heavyHitters.top(2)).containsExactly(2, 3);
+        assertThat(heavyHitters.top(10)).containsExactly(2, 3, 1);
+        assertThat(heavyHitters.top(0)).isEmpty();
+    }
+
+    @Test
+    void evictsTheLightestCandidateWhenFull() {
+        HeavyHitters heavyHitters = new HeavyHitters(2, new CountMinSketch(4, 256));
+        heavyHitters.add(1, 5);
+        heavyHitters.add(2, 1);
+        heavyHitters.add(3, 3);
+
+        assertThat(heavyHitters.top(10)).containsExactly(1, 3);
+    }
+
+    @Test
+    void removeFreesACandidateSlot() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, new CountMinSketch(4, 256));
+        heavyHitters.add(1, 5);
+        heavyHitters.add(2, 4);
+        heavyHitters.add(3, 3);
+        heavyHitters.remove(1);
+        heavyHitters.remove(42);
+        heavyHitters.add(4, 1);
+
+        assertThat(heavyHitters.top(10)).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    void scaleKeepsTheRanking() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, new CountMinSketch(4, 256));
+        heavyHitters.add(1, 2);
+        heavyHitters.add(2, 4);
+        heavyHitters.scale(0.25);
+        heavyHitters.add(1, 0.75);
+
+        assertThat(heavyHitters.top(10)).containsExactly(1, 2);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.product.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntIntHashMapTest {
+
+    @Test
+    void putGetAndOverwrite() {
+        IntIntHashMap map = new IntIntHashMap();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get(7)).isZero();
+        assertThat(map.containsKey(7)).isFalse();
+
+        map.put(7, 70);
+        map.put(0, 1);
+        map.put(7, 71);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(7)).isEqualTo(71);
+        assertThat(map.get(0)).isEqualTo(1);
+        assertThat(map.containsKey(0)).isTrue();
+    }
+
+    @Test
+    void addToStartsFromZero() {
+        IntIntHashMap map = new IntIntHashMap();
+        assertThat(map.addTo(3, 5)).isEqualTo(5);
+        assertThat(map.addTo(3, -2)).isEqualTo(3);
+        assertThat(map.get(3)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void resizesKeepingEveryEntry() {
+        IntIntHashMap map = new IntIntHashMap(1);
+        for (int key = 0; key < 100_000; key++) {
+            map.put(key, key * 3);
+        }
+        assertThat(map.size()).isEqualTo(100_000);
+        for (int key = 0; key < 100_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key * 3);
+        }
+        assertThat(map.containsKey(100_000)).isFalse();
+    }
+
+    @Test
+    void removeKeepsProbeChainsReachable() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        // a crowded small table, so removals have probe chains to repair
+        for (int key = 0; key < 6; key++) {
+            map.put(key << 16, key);
+        }
+        map.remove(2 << 16);
+        map.remove(2 << 16);
+        map.remove(12345);
+
+        assertThat(map.size()).isEqualTo(5);
+        assertThat(map.containsKey(2 << 16)).isFalse();
+        for (int key : new int[]{0, 1, 3, 4, 5}) {
+            assertThat(map.get(key << 16)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void behavesLikeHashMapUnderCollisions() {
+        Random random = new Random(42);
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        // a small key range keeps the table crowded with collisions, removals and re-insertions
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(512);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                case 1 -> {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                default -> assertThat(map.addTo(key, 1)).isEqualTo(expected.merge(key, 1, Integer::sum));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        for (int key = 0; key < 512; key++) {
+            assertThat(map.containsKey(key)).isEqualTo(expected.containsKey(key));
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+        }
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+}
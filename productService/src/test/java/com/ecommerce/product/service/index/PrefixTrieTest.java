@@ -0,0 +1,80 @@
+package com.ecommerce.product.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    private record Term(String text, int weight) {}
+
+    private static final Comparator<Term> HEAVIEST_FIRST = Comparator.comparingInt(Term::weight).reversed().thenComparing(Term::text);
+
+    @Test
+    void ranksTheValuesUnderAPrefix() {
+        PrefixTrie<Term> trie = new PrefixTrie<>(3, 10, HEAVIEST_FIRST);
+        Term apple = add(trie, "apple", 5);
+        Term apricot = add(trie, "apricot", 9);
+        Term application = add(trie, "application", 7);
+        Term apex = add(trie, "apex", 1);
+        Term banana = add(trie, "banana", 100);
+
+        assertThat(trie.top("ap")).containsExactly(apricot, application, apple);
+        assertThat(trie.top("app")).containsExactly(application, apple);
+        assertThat(trie.top("apex")).containsExactly(apex);
+        assertThat(trie.top("b")).containsExactly(banana);
+        assertThat(trie.top("c")).isEmpty();
+    }
+
+    @Test
+    void keepsTheBestWhenInsertedInAnyOrder() {
+        PrefixTrie<Term> trie = new PrefixTrie<>(2, 10, HEAVIEST_FIRST);
+        Term light = add(trie, "tea", 1);
+        Term heavy = add(trie, "tee", 10);
+        Term middle = add(trie, "tent", 5);
+        add(trie, "ten", 2);
+
+        assertThat(trie.top("te")).containsExactly(heavy, middle);
+        assertThat(trie.top("tea")).containsExactly(light);
+    }
+
+    @Test
+    void addingTheSameValueTwiceKeepsOneEntry() {
+        PrefixTrie<Term> trie = new PrefixTrie<>(3, 10, HEAVIEST_FIRST);
+        Term shoe = add(trie, "shoe", 3);
+        trie.add("shoe", shoe);
+
+        assertThat(trie.top("sh")).containsExactly(shoe);
+    }
+
+    @Test
+    void removeTakesTheValueOutOfEveryPrefix() {
+        PrefixTrie<Term> trie = new PrefixTrie<>(3, 10, HEAVIEST_FIRST);
+        Term lamp = add(trie, "lamp", 4);
+        Term laptop = add(trie, "laptop", 8);
+        trie.remove("laptop", laptop);
+        trie.remove("missing", laptop);
+
+        assertThat(trie.top("la")).containsExactly(lamp);
+        assertThat(trie.top("lap")).isEmpty();
+    }
+
+    @Test
+    void keysAreCutAtTheMaximumDepth() {
+        PrefixTrie<Term> trie = new PrefixTrie<>(3, 3, HEAVIEST_FIRST);
+        Term keyboard = add(trie, "keyboard", 2);
+        Term keychain = add(trie, "keychain", 6);
+
+        assertThat(trie.getMaxDepth()).isEqualTo(3);
+        // both share the cut prefix, callers filter on the full text
+        assertThat(trie.top("keyb")).containsExactly(keychain, keyboard);
+    }
+
+    private static Term add(PrefixTrie<Term> trie, String text, int weight) {
+        Term term = new Term(text, weight);
+        trie.add(text, term);
+        return term;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.product.service.index;
+
+import com.ecommerce.product.config.ApplicationProperties;
+import com.ecommerce.product.service.event.CatalogEntryChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpellingIndexTest {
+
+    private SpellingIndex spellingIndex;
+
+    private int ordinal;
+
+    @BeforeEach
+    void setUp() {
+        spellingIndex = new SpellingIndex(new ApplicationProperties());
+        ordinal = 0;
+        add("Wireless Headphones", "Sony", "audio");
+        add("Wireless Mouse", "Logitech", "computer");
+        add("Wired Headset", "Logitech", "audio");
+        add("Running Shoes", "Adidas", "sport");
+        add("Mountain Bike", "Trek", "sport");
+    }
+
+    @Test
+    void aVocabularyWordComesFirstInItsOwnList() {
+        assertThat(spellingIndex.spellings("wireless")).containsExactly(List.of("wireless"));
+        assertThat(spellingIndex.spellings("Wired").get(0)).first().isEqualTo("wired");
+    }
+
+    @Test
+    void findsWordsWithinTheEditDistance() {
+        // a deletion, an insertion, a substitution and a transposition
+        assertThat(spellingIndex.spellings("wireles")).containsExactly(List.of("wireless"));
+        assertThat(spellingIndex.spellings("headphonnes")).containsExactly(List.of("headphones"));
+        assertThat(spellingIndex.spellings("runnimg")).containsExactly(List.of("running"));
+        assertThat(spellingIndex.spellings("logitehc")).containsExactly(List.of("logitech"));
+        // two edits on a long word
+        assertThat(spellingIndex.spellings("montian")).containsExactly(List.of("mountain"));
+    }
+
+    @Test
+    void looksEveryWordOfTheTextUp() {
+        assertThat(spellingIndex.spellings("wirless mose")).containsExactly(List.of("wireless"), List.of("mouse"));
+    }
+
+    @Test
+    void closerSpellingsComeFirst() {
+        // "wires" is one edit from "wired" and more from "wireless"
+        assertThat(spellingIndex.spellings("wires").get(0)).containsExactly("wired");
+    }
+
+    @Test
+    void shortWordsTolerateFewerEdits() {
+        // one edit at most up to five letters, none up to two
+        assertThat(spellingIndex.spellings("bkie")).containsExactly(List.of("bike"));
+        assertThat(spellingIndex.spellings("bkei")).containsExactly(List.of());
+        assertThat(spellingIndex.spellings("bke")).containsExactly(List.of("bike"));
+        assertThat(spellingIndex.spellings("sny")).containsExactly(List.of("sony"));
+        assertThat(spellingIndex.spellings("tr")).containsExactly(List.of());
+    }
+
+    @Test
+    void unknownWordsHaveNoSpelling() {
+        assertThat(spellingIndex.spellings("refrigerator")).containsExactly(List.of());
+        assertThat(spellingIndex.spellings("")).isEmpty();
+    }
+
+    @Test
+    void wordsLeaveTheVocabularyWithTheirLastProduct() {
+        spellingIndex.onCatalogEntryChanged(new CatalogEntryChangedEvent(1, entry(1, "Wireless Mouse", "Logitech", "computer"), null));
+        assertThat(spellingIndex.spellings("mouse")).containsExactly(List.of());
+        // still used by the headset
+        assertThat(spellingIndex.spellings("logitech")).containsExactly(List.of("logitech"));
+
+        spellingIndex.onCatalogEntryChanged(new CatalogEntryChangedEvent(2, entry(2, "Wired Headset", "Logitech", "audio"), null));
+        assertThat(spellingIndex.spellings("logitech")).containsExactly(List.of());
+    }
+
+    @Test
+    void editDistanceCountsTranspositionsAsOneEdit() {
+        assertThat(SpellingIndex.editDistance("shoes", "shoes", 2)).isZero();
+        assertThat(SpellingIndex.editDistance("shoes", "hsoes", 2)).isEqualTo(1);
+        assertThat(SpellingIndex.editDistance("shoes", "shoe", 2)).isEqualTo(1);
+        assertThat(SpellingIndex.editDistance("shoes", "shows", 2)).isEqualTo(1);
+        assertThat(SpellingIndex.editDistance("kitten", "sitting", 3)).isEqualTo(3);
+        // beyond the maximum, max + 1 whatever the real distance
+        assertThat(SpellingIndex.editDistance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(SpellingIndex.editDistance("a", "abcdef", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void tokenizeLowerCasesAndSplitsOnPunctuation() {
+        assertThat(SpellingIndex.tokenize("Wi-Fi Router, 5GHz!")).containsExactly("wi", "fi", "router", "5ghz");
+        assertThat(SpellingIndex.tokenize(null)).isEmpty();
+    }
+
+    private void add(String name, String brand, String tags) {
+        int current = ordinal++;
+        spellingIndex.onCatalogEntryChanged(new CatalogEntryChangedEvent(current, null, entry(current, name, brand, tags)));
+    }
+
+    private static CatalogEntry entry(int ordinal, String name, String brand, String tags) {
+        return new CatalogEntry("p" + ordinal, name, null, brand, tags, null);
+    }
+}